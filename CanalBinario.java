@@ -0,0 +1,251 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+public class CanalBinario
+{
+    public static final byte TIPO_PEDIDO               = 1;
+    public static final byte TIPO_RESPOSTA             = 2;
+    public static final byte TIPO_ENCERRAMENTO         = 3;
+    public static final byte TIPO_PEDIDO_HISTOGRAMA    = 4;
+    public static final byte TIPO_RESPOSTA_HISTOGRAMA  = 5;
+    public static final byte TIPO_PEDIDO_FLUXO         = 6;
+    public static final byte TIPO_FRAGMENTO            = 7;
+    public static final byte TIPO_RECUSA               = 8;
+    public static final byte TIPO_PEDIDO_PRIMITIVO     = 9;
+    public static final byte TIPO_RESPOSTA_PRIMITIVA   = 10;
+    public static final byte TIPO_PEDIDO_CHAVE_VALOR   = 11;
+    public static final byte TIPO_RESPOSTA_CHAVE_VALOR = 12;
+
+    public static final int TAMANHO_CABECALHO = 1 + Long.BYTES + Integer.BYTES;
+    public static final int TAMANHO_BLOCO     = 1 << 18;
+
+    private final SocketChannel canal;
+    private final ByteBuffer    blocoEscrita     = ByteBuffer.allocateDirect(TAMANHO_BLOCO);
+    private final ByteBuffer    cabecalhoLeitura = ByteBuffer.allocateDirect(TAMANHO_CABECALHO);
+    private final ByteBuffer    blocoLeitura     = ByteBuffer.allocateDirect(TAMANHO_BLOCO);
+
+    public CanalBinario(SocketChannel canal) throws Exception
+    {
+        if (canal == null)
+            throw new Exception("Canal ausente");
+
+        if (!canal.isBlocking())
+            throw new Exception("Canal deve estar em modo bloqueante");
+
+        this.canal = canal;
+    }
+
+    public static ByteBuffer[] codificar(Comunicado x) throws IOException
+    {
+        if (x instanceof Pedido)
+            return quadro(x.getId(), TIPO_PEDIDO, ByteBuffer.wrap(((Pedido) x).getNumerosSemCopia()));
+
+        if (x instanceof Resposta)
+            return quadro(x.getId(), TIPO_RESPOSTA, ByteBuffer.wrap(((Resposta) x).getVetorSemCopia()));
+
+        if (x instanceof PedidoHistograma)
+            return quadro(x.getId(), TIPO_PEDIDO_HISTOGRAMA, ByteBuffer.wrap(((PedidoHistograma) x).getNumerosSemCopia()));
+
+        if (x instanceof RespostaHistograma)
+        {
+            long[] contagens = ((RespostaHistograma) x).getContagens();
+            ByteBuffer corpo = ByteBuffer.allocate(contagens.length * Long.BYTES);
+            for (long contagem : contagens)
+                corpo.putLong(contagem);
+            corpo.flip();
+            return quadro(x.getId(), TIPO_RESPOSTA_HISTOGRAMA, corpo);
+        }
+
+        if (x instanceof PedidoFluxo)
+        {
+            PedidoFluxo pedido = (PedidoFluxo) x;
+            ByteBuffer corpo = ByteBuffer.allocate(Integer.BYTES + 1);
+            corpo.putInt(pedido.tamanho());
+            corpo.put((byte) (pedido.isHistograma() ? 1 : 0));
+            corpo.flip();
+            return quadro(x.getId(), TIPO_PEDIDO_FLUXO, corpo);
+        }
+
+        if (x instanceof Fragmento)
+            return quadro(x.getId(), TIPO_FRAGMENTO, ByteBuffer.wrap(((Fragmento) x).getDadosSemCopia()));
+
+        if (x instanceof PedidoPrimitivo)
+            return quadro(x.getId(), TIPO_PEDIDO_PRIMITIVO, TipoPrimitivo.codificar(((PedidoPrimitivo) x).getNumerosSemCopia()));
+
+        if (x instanceof RespostaPrimitiva)
+            return quadro(x.getId(), TIPO_RESPOSTA_PRIMITIVA, TipoPrimitivo.codificar(((RespostaPrimitiva) x).getVetorSemCopia()));
+
+        if (x instanceof PedidoChaveValor)
+            return quadro(x.getId(), TIPO_PEDIDO_CHAVE_VALOR, ComunicadoChaveValor.codificar((ComunicadoChaveValor) x));
+
+        if (x instanceof RespostaChaveValor)
+            return quadro(x.getId(), TIPO_RESPOSTA_CHAVE_VALOR, ComunicadoChaveValor.codificar((ComunicadoChaveValor) x));
+
+        if (x instanceof ComunicadoRecusa)
+            return quadro(x.getId(), TIPO_RECUSA, ByteBuffer.wrap(((ComunicadoRecusa) x).getMotivo().getBytes(StandardCharsets.UTF_8)));
+
+        if (x instanceof ComunicadoEncerramento)
+            return quadro(x.getId(), TIPO_ENCERRAMENTO, ByteBuffer.allocate(0));
+
+        throw new IOException("Comunicado sem representacao binaria: " + x);
+    }
+
+    public static Comunicado decodificar(byte tipo, long id, byte[] corpo) throws IOException
+    {
+        Comunicado comunicado = decodificar(tipo, corpo);
+        comunicado.definirId(id);
+        return comunicado;
+    }
+
+    private static Comunicado decodificar(byte tipo, byte[] corpo) throws IOException
+    {
+        switch (tipo)
+        {
+            case TIPO_PEDIDO:
+                return new Pedido(corpo, false);
+
+            case TIPO_RESPOSTA:
+                return new Resposta(corpo, false);
+
+            case TIPO_PEDIDO_HISTOGRAMA:
+                return new PedidoHistograma(corpo, false);
+
+            case TIPO_RESPOSTA_HISTOGRAMA:
+            {
+                if (corpo.length != ParallelMergeSorter.VALORES_BYTE * Long.BYTES)
+                    throw new IOException("Histograma com tamanho invalido: " + corpo.length);
+
+                ByteBuffer leitura = ByteBuffer.wrap(corpo);
+                long[] contagens = new long[ParallelMergeSorter.VALORES_BYTE];
+                for (int v = 0; v < contagens.length; v++)
+                    contagens[v] = leitura.getLong();
+                return new RespostaHistograma(contagens);
+            }
+
+            case TIPO_PEDIDO_FLUXO:
+            {
+                if (corpo.length != Integer.BYTES + 1)
+                    throw new IOException("Pedido de fluxo com tamanho invalido: " + corpo.length);
+
+                ByteBuffer leitura = ByteBuffer.wrap(corpo);
+                int total = leitura.getInt();
+                boolean histograma = leitura.get() != 0;
+                return new PedidoFluxo(total, histograma);
+            }
+
+            case TIPO_FRAGMENTO:
+                return new Fragmento(corpo, false);
+
+            case TIPO_PEDIDO_PRIMITIVO:
+                return new PedidoPrimitivo(TipoPrimitivo.decodificar(corpo), false);
+
+            case TIPO_RESPOSTA_PRIMITIVA:
+                return new RespostaPrimitiva(TipoPrimitivo.decodificar(corpo), false);
+
+            case TIPO_PEDIDO_CHAVE_VALOR:
+                return ComunicadoChaveValor.decodificar(corpo, false);
+
+            case TIPO_RESPOSTA_CHAVE_VALOR:
+                return ComunicadoChaveValor.decodificar(corpo, true);
+
+            case TIPO_RECUSA:
+                return new ComunicadoRecusa(new String(corpo, StandardCharsets.UTF_8));
+
+            case TIPO_ENCERRAMENTO:
+                return new ComunicadoEncerramento();
+
+            default:
+                throw new IOException("Tipo de quadro desconhecido: " + tipo);
+        }
+    }
+
+    // Cabecalho e corpo dividem o mesmo bloco: um quadro pequeno sai numa
+    // unica escrita, sem esperar o ACK atrasado do parceiro.
+    public void escrever(Comunicado x) throws IOException
+    {
+        this.blocoEscrita.clear();
+        for (ByteBuffer parte : codificar(x))
+        {
+            while (parte.hasRemaining())
+            {
+                if (!this.blocoEscrita.hasRemaining())
+                {
+                    this.blocoEscrita.flip();
+                    escreverTudo(this.blocoEscrita);
+                    this.blocoEscrita.clear();
+                }
+
+                int quantidade = Math.min(this.blocoEscrita.remaining(), parte.remaining());
+                ByteBuffer fatia = parte.duplicate();
+                fatia.limit(fatia.position() + quantidade);
+                this.blocoEscrita.put(fatia);
+                parte.position(parte.position() + quantidade);
+            }
+        }
+
+        this.blocoEscrita.flip();
+        escreverTudo(this.blocoEscrita);
+    }
+
+    public Comunicado ler() throws IOException
+    {
+        this.cabecalhoLeitura.clear();
+        lerTudo(this.cabecalhoLeitura);
+        this.cabecalhoLeitura.flip();
+
+        byte tipo = this.cabecalhoLeitura.get();
+        long id = this.cabecalhoLeitura.getLong();
+        int tamanho = this.cabecalhoLeitura.getInt();
+        if (tamanho < 0)
+            throw new IOException("Tamanho de quadro invalido: " + tamanho);
+
+        return decodificar(tipo, id, lerBytes(tamanho));
+    }
+
+    private static ByteBuffer[] quadro(long id, byte tipo, ByteBuffer corpo)
+    {
+        ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+        cabecalho.put(tipo);
+        cabecalho.putLong(id);
+        cabecalho.putInt(corpo.remaining());
+        cabecalho.flip();
+        return new ByteBuffer[] {cabecalho, corpo};
+    }
+
+    private byte[] lerBytes(int tamanho) throws IOException
+    {
+        byte[] dados = new byte[tamanho];
+
+        int posicao = 0;
+        while (posicao < tamanho)
+        {
+            int quantidade = Math.min(TAMANHO_BLOCO, tamanho - posicao);
+            this.blocoLeitura.clear();
+            this.blocoLeitura.limit(quantidade);
+            lerTudo(this.blocoLeitura);
+            this.blocoLeitura.flip();
+            this.blocoLeitura.get(dados, posicao, quantidade);
+            posicao += quantidade;
+        }
+
+        return dados;
+    }
+
+    private void escreverTudo(ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining())
+            this.canal.write(buffer);
+    }
+
+    private void lerTudo(ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            if (this.canal.read(buffer) < 0)
+                throw new EOFException("Conexao encerrada durante a leitura de um quadro");
+        }
+    }
+}
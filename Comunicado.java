@@ -1,3 +1,16 @@
 import java.io.Serializable;
 
-public class Comunicado implements Serializable {}
+public class Comunicado implements Serializable
+{
+    private long id;
+
+    public long getId()
+    {
+        return this.id;
+    }
+
+    void definirId(long id)
+    {
+        this.id = id;
+    }
+}
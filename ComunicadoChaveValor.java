@@ -0,0 +1,160 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public abstract class ComunicadoChaveValor extends Comunicado
+{
+    public static final byte PERMUTACAO = 0;
+    public static final byte INDICES    = 1;
+    public static final byte REGISTROS  = 2;
+
+    private final byte modo;
+    private final long[] chaves;
+    private final int[] valores;
+    private final byte[] registros;
+    private final int largura;
+
+    ComunicadoChaveValor(byte modo, long[] chaves, int[] valores, byte[] registros, int largura)
+    {
+        if (chaves == null)
+            throw new IllegalArgumentException("Chaves ausentes");
+
+        switch (modo)
+        {
+            case PERMUTACAO:
+                if (valores != null && valores.length != chaves.length)
+                    throw new IllegalArgumentException("Esperada permutacao de " + chaves.length + " posicoes");
+                break;
+
+            case INDICES:
+                if (valores == null || valores.length != chaves.length)
+                    throw new IllegalArgumentException("Esperados " + chaves.length + " valores");
+                break;
+
+            case REGISTROS:
+                if (registros == null || largura <= 0 || (long) chaves.length * largura != registros.length)
+                    throw new IllegalArgumentException("Registros de largura " + largura + " nao correspondem a " + chaves.length + " chaves");
+                break;
+
+            default:
+                throw new IllegalArgumentException("Modo desconhecido: " + modo);
+        }
+
+        this.modo = modo;
+        this.chaves = chaves;
+        this.valores = valores;
+        this.registros = registros;
+        this.largura = largura;
+    }
+
+    public byte getModo()
+    {
+        return this.modo;
+    }
+
+    public int tamanho()
+    {
+        return this.chaves.length;
+    }
+
+    public long[] getChaves()
+    {
+        return this.chaves.clone();
+    }
+
+    public int[] getValores()
+    {
+        return this.valores == null ? null : this.valores.clone();
+    }
+
+    public byte[] getRegistros()
+    {
+        return this.registros == null ? null : this.registros.clone();
+    }
+
+    public int getLargura()
+    {
+        return this.largura;
+    }
+
+    long[] getChavesSemCopia()
+    {
+        return this.chaves;
+    }
+
+    int[] getValoresSemCopia()
+    {
+        return this.valores;
+    }
+
+    byte[] getRegistrosSemCopia()
+    {
+        return this.registros;
+    }
+
+    // Corpo binario: modo, quantidade e largura seguidos das chaves e da carga.
+    static ByteBuffer codificar(ComunicadoChaveValor x) throws IOException
+    {
+        int quantidade = x.chaves.length;
+        long bytes = 1L + Integer.BYTES + Integer.BYTES + (long) quantidade * Long.BYTES
+                   + (x.modo == REGISTROS ? x.registros.length : x.valores == null ? 0 : (long) quantidade * Integer.BYTES);
+        if (bytes > Integer.MAX_VALUE)
+            throw new IOException("Pedido de chave e valor grande demais para um unico quadro: " + bytes + " bytes");
+
+        ByteBuffer corpo = ByteBuffer.allocate((int) bytes);
+        corpo.put(x.modo);
+        corpo.putInt(quantidade);
+        corpo.putInt(x.largura);
+        corpo.asLongBuffer().put(x.chaves);
+        corpo.position(corpo.position() + quantidade * Long.BYTES);
+        if (x.modo == REGISTROS)
+            corpo.put(x.registros);
+        else if (x.valores != null)
+            corpo.asIntBuffer().put(x.valores);
+        corpo.rewind();
+        return corpo;
+    }
+
+    static ComunicadoChaveValor decodificar(byte[] corpo, boolean resposta) throws IOException
+    {
+        ByteBuffer leitura = ByteBuffer.wrap(corpo);
+        if (leitura.remaining() < 1 + 2 * Integer.BYTES)
+            throw new IOException("Corpo de chave e valor truncado");
+
+        byte modo = leitura.get();
+        int quantidade = leitura.getInt();
+        int largura = leitura.getInt();
+        if (quantidade < 0 || largura < 0 || leitura.remaining() < (long) quantidade * Long.BYTES)
+            throw new IOException("Corpo de chave e valor com tamanho invalido: " + corpo.length);
+
+        long[] chaves = new long[quantidade];
+        leitura.asLongBuffer().get(chaves);
+        leitura.position(leitura.position() + quantidade * Long.BYTES);
+
+        int[] valores = null;
+        byte[] registros = null;
+        if (modo == REGISTROS)
+        {
+            if (leitura.remaining() != (long) quantidade * largura)
+                throw new IOException("Registros com tamanho invalido: " + leitura.remaining());
+            registros = new byte[leitura.remaining()];
+            leitura.get(registros);
+        }
+        else if (leitura.hasRemaining())
+        {
+            if (leitura.remaining() != (long) quantidade * Integer.BYTES)
+                throw new IOException("Valores com tamanho invalido: " + leitura.remaining());
+            valores = new int[quantidade];
+            leitura.asIntBuffer().get(valores);
+        }
+
+        try
+        {
+            return resposta ? new RespostaChaveValor(modo, chaves, valores, registros, largura)
+                            : new PedidoChaveValor(modo, chaves, valores, registros, largura);
+        }
+        catch (IllegalArgumentException erro)
+        {
+            throw new IOException(erro.getMessage());
+        }
+    }
+}
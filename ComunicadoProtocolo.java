@@ -0,0 +1,25 @@
+public class ComunicadoProtocolo extends Comunicado
+{
+    public static final String OBJETOS = "OBJETOS";
+    public static final String BINARIO = "BINARIO";
+
+    private final String protocolo;
+
+    public ComunicadoProtocolo(String protocolo)
+    {
+        if (protocolo == null)
+            throw new IllegalArgumentException("Protocolo ausente");
+
+        this.protocolo = protocolo;
+    }
+
+    public String getProtocolo()
+    {
+        return this.protocolo;
+    }
+
+    public boolean isBinario()
+    {
+        return BINARIO.equals(this.protocolo);
+    }
+}
@@ -0,0 +1,17 @@
+public class ComunicadoRecusa extends Comunicado
+{
+    private final String motivo;
+
+    public ComunicadoRecusa(String motivo)
+    {
+        if (motivo == null)
+            throw new IllegalArgumentException("Motivo ausente");
+
+        this.motivo = motivo;
+    }
+
+    public String getMotivo()
+    {
+        return this.motivo;
+    }
+}
@@ -0,0 +1,517 @@
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+// Medicao no estilo do JMH: cada combinacao de caso, tamanho, threads e
+// distribuicao roda numa JVM propria (forks=), com iteracoes de aquecimento
+// descartadas antes das medidas. Cada iteracao executa lotes de operacoes
+// ate passar iteracao_ms e registra ns por operacao; o tempo de GC durante
+// as medidas sai junto para separar pausas do custo do algoritmo.
+//
+// java Desempenho [casos=sort,coRank,...] [tamanhos=...] [threads=...]
+//                 [distribuicoes=aleatorio,ordenado,invertido,quase,poucos]
+//                 [aquecimento=5] [medicoes=10] [iteracao_ms=500] [forks=1]
+//                 [resultados=arquivo.csv]
+public class Desempenho
+{
+    public static final String CABECALHO = "caso,tamanho,threads,distribuicao,fork,medicoes,media_ns_op,desvio_ns_op,minimo_ns_op,gc_ms";
+
+    public static final String[] CASOS = {"sort", "sortSequential", "sortForkJoin", "sortSample", "sortCounting", "sortAuto",
+                                          "mergeAll", "mergeComThreads", "coRank", "parceiroObjetos", "parceiroBinario"};
+    public static final String[] DISTRIBUICOES = {"aleatorio", "ordenado", "invertido", "quase", "poucos"};
+
+    private static final int PARTES_MERGE_ALL = 8;
+    private static final long LOTE_MINIMO_NS = 1_000_000;
+    private static final long SEMENTE = 42;
+
+    // Destino dos resultados de cada operacao, para que o JIT nao elimine
+    // chamadas cujo retorno nao seria usado.
+    private static volatile long consumidor;
+
+    public static void main(String[] args)
+    {
+        Opcoes opcoes;
+        try
+        {
+            opcoes = Opcoes.deArgumentos(args);
+        }
+        catch (Exception erro)
+        {
+            System.err.println("Configuracao invalida: " + erro.getMessage());
+            return;
+        }
+
+        try
+        {
+            String[] casos = opcoes.lista("casos", String.join(",", CASOS));
+            String[] tamanhos = opcoes.lista("tamanhos", "10000,1000000,16000000");
+            String[] threads = opcoes.lista("threads", "1," + Runtime.getRuntime().availableProcessors());
+            String[] distribuicoes = opcoes.lista("distribuicoes", String.join(",", DISTRIBUICOES));
+            int forks = opcoes.inteiro("forks", 1);
+
+            String destino = opcoes.texto("resultados", null);
+            PrintStream saida = destino == null ? System.out
+                                                : new PrintStream(Files.newOutputStream(Paths.get(destino)), true, StandardCharsets.UTF_8.name());
+            if (!opcoes.sim("filho", false))
+                saida.println(CABECALHO);
+
+            for (String caso : casos)
+            {
+                validar(caso, CASOS);
+                // O transporte nao usa o pool; basta medi-lo uma vez por tamanho.
+                String[] threadsCaso = caso.startsWith("parceiro") ? new String[] {threads[0]} : threads;
+                for (String tamanho : tamanhos)
+                    for (String t : threadsCaso)
+                        for (String distribuicao : distribuicoes)
+                        {
+                            validar(distribuicao, DISTRIBUICOES);
+                            if (forks <= 0)
+                            {
+                                saida.println(medir(caso, Integer.parseInt(tamanho), Integer.parseInt(t), distribuicao, opcoes.inteiro("fork", 0), opcoes));
+                                continue;
+                            }
+                            for (int f = 1; f <= forks; f++)
+                                saida.println(bifurcar(caso, tamanho, t, distribuicao, f, opcoes));
+                        }
+            }
+
+            if (saida != System.out)
+                saida.close();
+        }
+        catch (Exception erro)
+        {
+            System.err.println("Falha na medicao: " + erro.getMessage());
+        }
+    }
+
+    private static void validar(String valor, String[] permitidos)
+    {
+        if (!Arrays.asList(permitidos).contains(valor))
+            throw new IllegalArgumentException("Valor desconhecido: " + valor + " (use " + String.join(",", permitidos) + ")");
+    }
+
+    // Repete a propria linha de comando numa JVM nova, restrita a uma unica
+    // combinacao, com as mesmas opcoes de JVM do processo atual.
+    private static String bifurcar(String caso, String tamanho, String threads, String distribuicao, int fork, Opcoes opcoes) throws Exception
+    {
+        List<String> comando = new ArrayList<>();
+        comando.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        comando.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        comando.add("-cp");
+        comando.add(System.getProperty("java.class.path"));
+        comando.add(Desempenho.class.getName());
+        comando.add("filho=S");
+        comando.add("forks=0");
+        comando.add("fork=" + fork);
+        comando.add("casos=" + caso);
+        comando.add("tamanhos=" + tamanho);
+        comando.add("threads=" + threads);
+        comando.add("distribuicoes=" + distribuicao);
+        comando.add("aquecimento=" + opcoes.inteiro("aquecimento", 5));
+        comando.add("medicoes=" + opcoes.inteiro("medicoes", 10));
+        comando.add("iteracao_ms=" + opcoes.inteiro("iteracao_ms", 500));
+
+        Process filho = new ProcessBuilder(comando).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        String linha;
+        String resultado = null;
+        try (BufferedReader leitor = new BufferedReader(new InputStreamReader(filho.getInputStream(), StandardCharsets.UTF_8)))
+        {
+            while ((linha = leitor.readLine()) != null)
+                resultado = linha;
+        }
+
+        if (filho.waitFor() != 0 || resultado == null)
+            throw new Exception("Medicao de " + caso + " em fork " + fork + " terminou sem resultado");
+        return resultado;
+    }
+
+    private static String medir(String nomeCaso, int tamanho, int threads, String distribuicao, int fork, Opcoes opcoes) throws Exception
+    {
+        int aquecimento = opcoes.inteiro("aquecimento", 5);
+        int medicoes = Math.max(1, opcoes.inteiro("medicoes", 10));
+        long iteracaoNs = opcoes.inteiro("iteracao_ms", 500) * 1_000_000L;
+
+        ParallelMergeSorter.configurarPool(threads);
+        Caso caso = criar(nomeCaso);
+        caso.preparar(gerar(tamanho, distribuicao), threads);
+        try
+        {
+            // O aquecimento tambem calibra o lote: operacoes curtas como o
+            // coRank sao agrupadas para que a leitura do relogio nao domine.
+            int lote = 1;
+            for (int i = 0; i < aquecimento; i++)
+            {
+                long fimIteracao = System.nanoTime() + iteracaoNs;
+                while (System.nanoTime() < fimIteracao)
+                {
+                    long inicio = System.nanoTime();
+                    executarLote(caso, lote);
+                    if (System.nanoTime() - inicio < LOTE_MINIMO_NS && lote < (1 << 24))
+                        lote *= 2;
+                }
+            }
+
+            double[] nsPorOperacao = new double[medicoes];
+            long gcInicial = tempoGc();
+            for (int i = 0; i < medicoes; i++)
+            {
+                long operacoes = 0;
+                long inicio = System.nanoTime();
+                long decorrido;
+                do
+                {
+                    executarLote(caso, lote);
+                    operacoes += lote;
+                    decorrido = System.nanoTime() - inicio;
+                }
+                while (decorrido < iteracaoNs);
+                nsPorOperacao[i] = (double) decorrido / operacoes;
+            }
+            long gc = tempoGc() - gcInicial;
+
+            double media = 0;
+            double minimo = Double.MAX_VALUE;
+            for (double valor : nsPorOperacao)
+            {
+                media += valor;
+                minimo = Math.min(minimo, valor);
+            }
+            media /= medicoes;
+
+            double variancia = 0;
+            for (double valor : nsPorOperacao)
+                variancia += (valor - media) * (valor - media);
+            double desvio = medicoes > 1 ? Math.sqrt(variancia / (medicoes - 1)) : 0;
+
+            return String.format(Locale.ROOT, "%s,%d,%d,%s,%d,%d,%.1f,%.1f,%.1f,%d",
+                                 nomeCaso, tamanho, threads, distribuicao, fork, medicoes, media, desvio, minimo, gc);
+        }
+        finally
+        {
+            caso.encerrar();
+        }
+    }
+
+    private static void executarLote(Caso caso, int lote) throws Exception
+    {
+        long soma = 0;
+        for (int i = 0; i < lote; i++)
+            soma += caso.executar();
+        consumidor += soma;
+    }
+
+    private static long tempoGc()
+    {
+        long total = 0;
+        for (GarbageCollectorMXBean coletor : ManagementFactory.getGarbageCollectorMXBeans())
+            total += Math.max(0, coletor.getCollectionTime());
+        return total;
+    }
+
+    static byte[] gerar(int tamanho, String distribuicao)
+    {
+        Random aleatorio = new Random(SEMENTE);
+        byte[] dados = new byte[tamanho];
+        if (distribuicao.equals("poucos"))
+        {
+            byte[] valores = {-100, -3, 17, 90};
+            for (int i = 0; i < tamanho; i++)
+                dados[i] = valores[aleatorio.nextInt(valores.length)];
+            return dados;
+        }
+
+        aleatorio.nextBytes(dados);
+        if (distribuicao.equals("aleatorio"))
+            return dados;
+
+        Arrays.sort(dados);
+        if (distribuicao.equals("quase"))
+        {
+            // Ordenado com 1% das posicoes trocadas ao acaso.
+            for (int troca = 0; troca < tamanho / 100; troca++)
+            {
+                int i = aleatorio.nextInt(tamanho);
+                int j = aleatorio.nextInt(tamanho);
+                byte valor = dados[i];
+                dados[i] = dados[j];
+                dados[j] = valor;
+            }
+        }
+        else if (distribuicao.equals("invertido"))
+        {
+            for (int i = 0, j = tamanho - 1; i < j; i++, j--)
+            {
+                byte troca = dados[i];
+                dados[i] = dados[j];
+                dados[j] = troca;
+            }
+        }
+        return dados;
+    }
+
+    private static Caso criar(String nome)
+    {
+        switch (nome)
+        {
+            case "sort":            return new CasoOrdenacao(CasoOrdenacao.SORT);
+            case "sortSequential":  return new CasoOrdenacao(CasoOrdenacao.SEQUENCIAL);
+            case "sortForkJoin":    return new CasoOrdenacao(CasoOrdenacao.FORK_JOIN);
+            case "sortSample":      return new CasoOrdenacao(CasoOrdenacao.AMOSTRAGEM);
+            case "sortCounting":    return new CasoOrdenacao(CasoOrdenacao.CONTAGEM);
+            case "sortAuto":        return new CasoOrdenacao(CasoOrdenacao.AUTOMATICA);
+            case "mergeAll":        return new CasoMergeAll();
+            case "mergeComThreads": return new CasoMerge();
+            case "coRank":          return new CasoCoRank();
+            case "parceiroObjetos": return new CasoParceiro(false);
+            default:                return new CasoParceiro(true);
+        }
+    }
+
+    private abstract static class Caso
+    {
+        abstract void preparar(byte[] dados, int threads) throws Exception;
+
+        abstract long executar() throws Exception;
+
+        void encerrar() throws Exception
+        {}
+    }
+
+    private static final class CasoOrdenacao extends Caso
+    {
+        static final int SORT       = 0;
+        static final int SEQUENCIAL = 1;
+        static final int FORK_JOIN  = 2;
+        static final int CONTAGEM   = 3;
+        static final int AUTOMATICA = 4;
+        static final int AMOSTRAGEM = 5;
+
+        private final int motor;
+        private byte[] dados;
+        private int threads;
+
+        CasoOrdenacao(int motor)
+        {
+            this.motor = motor;
+        }
+
+        @Override
+        void preparar(byte[] dados, int threads)
+        {
+            this.dados = dados;
+            this.threads = threads;
+        }
+
+        // Todos os motores pagam uma copia da entrada: os que ordenam no
+        // lugar recebem a copia, os demais a fazem internamente.
+        @Override
+        long executar()
+        {
+            byte[] resultado;
+            switch (this.motor)
+            {
+                case SORT:
+                    resultado = ParallelMergeSorter.sort(this.dados, this.threads);
+                    break;
+                case SEQUENCIAL:
+                    resultado = ParallelMergeSorter.sortSequential(this.dados);
+                    break;
+                case FORK_JOIN:
+                    resultado = ParallelMergeSorter.sortForkJoin(this.dados);
+                    break;
+                case CONTAGEM:
+                    resultado = ParallelMergeSorter.sortCounting(this.dados, this.threads);
+                    break;
+                case AMOSTRAGEM:
+                    resultado = ParallelMergeSorter.sortSample(this.dados, this.threads);
+                    break;
+                default:
+                    resultado = this.dados.clone();
+                    ParallelMergeSorter.sortAutoInPlace(resultado, 0, resultado.length, this.threads);
+            }
+            return resultado[resultado.length >> 1];
+        }
+    }
+
+    // As partes sao fatias consecutivas da distribuicao, cada uma ordenada:
+    // em "ordenado" elas ja se encadeiam, em "invertido" vem em ordem oposta.
+    private static List<byte[]> partesOrdenadas(byte[] dados, int partes)
+    {
+        List<byte[]> resultado = new ArrayList<>(partes);
+        for (int p = 0; p < partes; p++)
+        {
+            byte[] parte = Arrays.copyOfRange(dados, (int) ((long) dados.length * p / partes), (int) ((long) dados.length * (p + 1) / partes));
+            Arrays.sort(parte);
+            resultado.add(parte);
+        }
+        return resultado;
+    }
+
+    private static final class CasoMergeAll extends Caso
+    {
+        private List<byte[]> partes;
+        private int threads;
+
+        @Override
+        void preparar(byte[] dados, int threads)
+        {
+            this.partes = partesOrdenadas(dados, PARTES_MERGE_ALL);
+            this.threads = threads;
+        }
+
+        @Override
+        long executar()
+        {
+            byte[] resultado = ParallelMergeSorter.mergeAll(this.partes, this.threads);
+            return resultado[resultado.length >> 1];
+        }
+    }
+
+    private static final class CasoMerge extends Caso
+    {
+        private byte[] esquerdo;
+        private byte[] direito;
+        private int threads;
+
+        @Override
+        void preparar(byte[] dados, int threads)
+        {
+            List<byte[]> partes = partesOrdenadas(dados, 2);
+            this.esquerdo = partes.get(0);
+            this.direito = partes.get(1);
+            this.threads = threads;
+        }
+
+        @Override
+        long executar()
+        {
+            byte[] resultado = ParallelMergeSorter.mergeComThreads(this.esquerdo, this.direito, this.threads);
+            return resultado[resultado.length >> 1];
+        }
+    }
+
+    // Cada operacao e uma busca de corte para uma posicao diferente da saida.
+    private static final class CasoCoRank extends Caso
+    {
+        private byte[] esquerdo;
+        private byte[] direito;
+        private int total;
+        private int k;
+
+        @Override
+        void preparar(byte[] dados, int threads)
+        {
+            List<byte[]> partes = partesOrdenadas(dados, 2);
+            this.esquerdo = partes.get(0);
+            this.direito = partes.get(1);
+            this.total = dados.length;
+        }
+
+        @Override
+        long executar()
+        {
+            this.k = (int) ((this.k + 0x9E3779B1L) % (this.total + 1));
+            return ParallelMergeSorter.coRank(this.k, this.esquerdo, this.direito);
+        }
+    }
+
+    // Ida e volta de um Pedido por loopback: o lado remoto responde com o
+    // proprio vetor, entao so a serializacao e o transporte sao medidos.
+    private static final class CasoParceiro extends Caso
+    {
+        private final boolean binario;
+        private ServerSocketChannel servidor;
+        private Thread eco;
+        private Parceiro cliente;
+        private byte[] dados;
+
+        CasoParceiro(boolean binario)
+        {
+            this.binario = binario;
+        }
+
+        @Override
+        void preparar(byte[] dados, int threads) throws Exception
+        {
+            this.dados = dados;
+            this.servidor = ServerSocketChannel.open();
+            this.servidor.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+
+            this.eco = new Thread(this::ecoar, "eco-desempenho");
+            this.eco.setDaemon(true);
+            this.eco.start();
+
+            // Como no Distribuidor e no Receptor, sem Nagle: senao o caso mede o
+            // ACK atrasado do loopback em vez do custo de cada protocolo.
+            Socket conexao = SocketChannel.open(this.servidor.getLocalAddress()).socket();
+            conexao.setTcpNoDelay(true);
+            ObjectOutputStream transmissor = new ObjectOutputStream(conexao.getOutputStream());
+            ObjectInputStream receptor = new ObjectInputStream(conexao.getInputStream());
+            this.cliente = new Parceiro(conexao, receptor, transmissor);
+            if (this.binario && !this.cliente.solicitarModoBinario())
+                throw new Exception("Protocolo binario recusado no loopback");
+        }
+
+        private void ecoar()
+        {
+            try
+            {
+                Socket conexao = this.servidor.accept().socket();
+                conexao.setTcpNoDelay(true);
+                ObjectOutputStream transmissor = new ObjectOutputStream(conexao.getOutputStream());
+                ObjectInputStream receptor = new ObjectInputStream(conexao.getInputStream());
+                Parceiro parceiro = new Parceiro(conexao, receptor, transmissor);
+                for (;;)
+                {
+                    Comunicado comunicado = parceiro.envie();
+                    if (comunicado instanceof ComunicadoProtocolo)
+                    {
+                        parceiro.receba(new ComunicadoProtocolo(ComunicadoProtocolo.BINARIO));
+                        parceiro.ativarModoBinario();
+                    }
+                    else if (comunicado instanceof Pedido)
+                        parceiro.receba(new Resposta(((Pedido) comunicado).getNumerosSemCopia(), false));
+                    else
+                        return;
+                }
+            }
+            catch (Exception erro)
+            {
+                // A conexao fecha quando o caso e encerrado.
+            }
+        }
+
+        @Override
+        long executar() throws Exception
+        {
+            this.cliente.receba(new Pedido(this.dados, false));
+            Comunicado resposta = this.cliente.envie();
+            return ((Resposta) resposta).getVetorSemCopia().length;
+        }
+
+        @Override
+        void encerrar() throws Exception
+        {
+            this.cliente.receba(new ComunicadoEncerramento());
+            this.cliente.adeus();
+            this.servidor.close();
+        }
+    }
+}
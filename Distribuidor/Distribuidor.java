@@ -1,149 +1,176 @@
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.net.InetSocketAddress;
 import java.net.Socket;
-import java.util.ArrayList;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
 
 public class Distribuidor
 {
     public static final int PORTA_PADRAO = 12345;
+    public static final boolean PROTOCOLO_BINARIO = true;
+    public static final int FAIXAS_POR_RECEPTOR = 8;
 
-    private static class Trabalhador extends Thread
-    {
-        private final Parceiro servidor;
-        private final byte[] parte;
-        private final String host;
-        private byte[] resultado;
-        private Exception falha;
+    private static ExecutorService conversas;
 
-        Trabalhador(Parceiro servidor, byte[] parte, String host)
-        {
-            this.servidor = servidor;
-            this.parte = parte;
-            this.host = host;
-        }
-
-        @Override
-        public void run()
+    public static void main(String[] args)
+    {
+        if (Opcoes.ehLote(args))
         {
-            try
-            {
-                System.out.println("[D] Enviando parte de tamanho " + this.parte.length + " para " + this.host);
-                this.servidor.receba(new Pedido(this.parte));
-                Comunicado resposta = this.servidor.envie();
-                if (!(resposta instanceof Resposta))
-                    throw new IllegalStateException("Objeto inesperado do receptor " + this.host);
-                this.resultado = ((Resposta) resposta).getVetor();
-                System.out.println("[D] Resposta recebida de " + this.host + ". Elementos: " + this.resultado.length);
-            }
-            catch (Exception e)
-            {
-                this.falha = e;
-            }
+            executarLote(args);
+            return;
         }
 
-        public byte[] getResultado() throws Exception
+        if (args.length > 1)
         {
-            if (this.falha != null)
-                throw new Exception("Falha ao comunicar com " + this.host + ": " + this.falha.getMessage(), this.falha);
-            return this.resultado == null ? new byte[0] : this.resultado;
+            System.err.println("Uso esperado: java Distribuidor [plataforma|virtual]");
+            System.err.println("          ou: java Distribuidor chave=valor ... (hosts, porta, threads, modo, entrada, tamanho,");
+            System.err.println("              saida, histograma, particionado, fluxo, repeticoes, verificar, nome, lote, config,");
+            System.err.println("              resultados)");
+            return;
         }
-    }
 
-    public static void main(String[] args)
-    {
         // Ajuste estes IPs antes de executar para apontar para cada Receptor ativo.
         String[] hosts = {"127.0.0.1"};
         int porta = Distribuidor.PORTA_PADRAO;
+        String modo = args.length == 1 ? args[0] : ModoExecucao.PLATAFORMA;
+        if (modo.equalsIgnoreCase(ModoExecucao.VIRTUAL) && !ModoExecucao.virtualDisponivel())
+        {
+            System.err.println("[D] Threads virtuais exigem Java 21 ou superior; usando threads de plataforma.");
+            modo = ModoExecucao.PLATAFORMA;
+        }
 
-        Parceiro[] servidores = conectarServidores(hosts, porta);
+        try
+        {
+            conversas = ModoExecucao.novoExecutorConversas(modo);
+        }
+        catch (Exception erro)
+        {
+            System.err.println("[D] " + erro.getMessage());
+            return;
+        }
+
+        Multiplexador[] servidores = conectarServidores(hosts, porta);
         if (servidores == null)
+        {
+            conversas.shutdown();
             return;
+        }
 
         try
         {
-            executarLoop(servidores, hosts);
+            executarLoop(servidores, hosts, porta);
         }
         finally
         {
             encerrarServidores(servidores);
+            conversas.shutdown();
         }
     }
 
-    private static Parceiro[] conectarServidores(String[] hosts, int porta)
+    private static Multiplexador[] conectarServidores(String[] hosts, int porta)
     {
-        Parceiro[] servidores = new Parceiro[hosts.length];
+        Multiplexador[] servidores = new Multiplexador[hosts.length];
+        int conectados = 0;
 
         for (int i = 0; i < hosts.length; i++)
         {
             try
             {
-                Socket conexao = new Socket(hosts[i], porta);
-                ObjectOutputStream transmissor = new ObjectOutputStream(conexao.getOutputStream());
-                ObjectInputStream receptor = new ObjectInputStream(conexao.getInputStream());
-                servidores[i] = new Parceiro(conexao, receptor, transmissor);
-                System.out.println("[D] Conectado a " + hosts[i]);
+                servidores[i] = conectar(hosts[i], porta);
+                conectados++;
             }
             catch (Exception erro)
             {
                 System.err.println("[D] Falha ao conectar em " + hosts[i] + ": " + erro.getMessage());
-                for (int j = 0; j < i; j++)
-                {
-                    try
-                    {
-                        servidores[j].adeus();
-                    }
-                    catch (Exception ignorado)
-                    {}
-                }
-                return null;
             }
         }
 
+        if (conectados == 0)
+        {
+            System.err.println("[D] Nenhum receptor disponivel.");
+            return null;
+        }
+
         return servidores;
     }
 
-    private static void executarLoop(Parceiro[] servidores, String[] hosts)
+    private static void reconectarServidores(Multiplexador[] servidores, String[] hosts, int porta)
     {
-        String opcao = "S";
-        while (opcao.equalsIgnoreCase("S"))
+        for (int i = 0; i < servidores.length; i++)
         {
+            if (servidores[i] != null && servidores[i].isAtivo())
+                continue;
+
             try
             {
-                System.out.print("Digite o tamanho do vetor a ser ordenado: ");
-                int tamanho = Teclado.getUmInt();
-                if (tamanho <= 0)
-                {
-                    System.out.println("Informe um tamanho positivo.");
-                    continue;
-                }
+                Multiplexador antigo = servidores[i];
+                servidores[i] = conectar(hosts[i], porta);
+                System.out.println("[D] Receptor " + hosts[i] + " reintegrado ao cluster");
+                if (antigo != null)
+                    antigo.getParceiro().adeus();
+            }
+            catch (Exception erro)
+            {
+                System.err.println("[D] Receptor " + hosts[i] + " continua indisponivel: " + erro.getMessage());
+            }
+        }
+    }
 
-                byte[] vetor = gerarVetor(tamanho);
-                System.out.print("Deseja imprimir o vetor gerado? [S/N]: ");
-                if (Teclado.getUmString().equalsIgnoreCase("S"))
-                    System.out.println(Arrays.toString(vetor));
+    // O host pode trazer a propria porta (host:porta); sem ela vale a padrao.
+    private static Multiplexador conectar(String host, int porta) throws Exception
+    {
+        String endereco = host;
+        int separador = host.lastIndexOf(':');
+        if (separador > 0 && host.indexOf(':') == separador)
+        {
+            endereco = host.substring(0, separador);
+            porta = Integer.parseInt(host.substring(separador + 1));
+        }
 
-                long inicioDistribuido = System.currentTimeMillis();
-                byte[][] fatias = fatiarVetor(vetor, servidores.length);
-                List<byte[]> partesOrdenadas = despacharPedidos(servidores, hosts, fatias);
-                int threadsDisponiveis = Math.max(1, Runtime.getRuntime().availableProcessors());
-                byte[] resultadoDistribuido = ParallelMergeSorter.mergeAll(partesOrdenadas, threadsDisponiveis);
-                long fimDistribuido = System.currentTimeMillis();
+        Socket conexao = SocketChannel.open(new InetSocketAddress(endereco, porta)).socket();
+        try
+        {
+            conexao.setTcpNoDelay(true);
+            ObjectOutputStream transmissor = new ObjectOutputStream(conexao.getOutputStream());
+            ObjectInputStream receptor = new ObjectInputStream(conexao.getInputStream());
+            Parceiro parceiro = new Parceiro(conexao, receptor, transmissor);
+            if (PROTOCOLO_BINARIO && parceiro.solicitarModoBinario())
+                System.out.println("[D] Conectado a " + host + " (protocolo binario)");
+            else
+                System.out.println("[D] Conectado a " + host);
+            return new Multiplexador(parceiro, host);
+        }
+        catch (Exception erro)
+        {
+            conexao.close();
+            throw erro;
+        }
+    }
 
-                long inicioSequencial = System.currentTimeMillis();
-                byte[] resultadoSequencial = ParallelMergeSorter.sortSequential(vetor);
-                long fimSequencial = System.currentTimeMillis();
+    private static void executarLoop(Multiplexador[] servidores, String[] hosts, int porta)
+    {
+        String opcao = "S";
+        while (opcao.equalsIgnoreCase("S"))
+        {
+            try
+            {
+                FonteVetor fonte = abrirFonte();
+                if (fonte == null)
+                    continue;
 
-                System.out.println("\n--- Estatisticas ---");
-                System.out.println("Tempo distribuido: " + (fimDistribuido - inicioDistribuido) + " ms");
-                System.out.println("Tempo sequencial:  " + (fimSequencial - inicioSequencial) + " ms");
-                System.out.println("Resultados identicos? " + Arrays.equals(resultadoDistribuido, resultadoSequencial));
+                byte[] resultadoDistribuido;
+                try (FonteVetor aberta = fonte)
+                {
+                    resultadoDistribuido = ordenarDistribuido(aberta, servidores, hosts, porta);
+                }
 
-                System.out.print("Informe o nome do arquivo texto para gravar o vetor ordenado: ");
+                System.out.print("Informe o nome do arquivo para gravar o vetor ordenado (.txt, .bin ou .rle): ");
                 String nomeArquivo = Teclado.getUmString();
                 salvarEmArquivo(resultadoDistribuido, nomeArquivo);
 
@@ -158,60 +185,243 @@ public class Distribuidor
         }
     }
 
-    private static List<byte[]> despacharPedidos(Parceiro[] servidores, String[] hosts, byte[][] fatias) throws Exception
+    // Vetores gerados ficam em memoria; arquivos binarios sao mapeados e cada
+    // fatia e lida da sua regiao apenas quando e despachada a um Receptor.
+    private static FonteVetor abrirFonte() throws Exception
     {
-        List<byte[]> partesOrdenadas = new ArrayList<>();
-        Trabalhador[] trabalhadores = new Trabalhador[servidores.length];
+        System.out.print("Origem do vetor: [G]erar, arquivo [B]inario ou arquivo [T]exto: ");
+        String origem = Teclado.getUmString().trim();
 
-        for (int i = 0; i < servidores.length; i++)
+        if (origem.equalsIgnoreCase("B") || origem.equalsIgnoreCase("T"))
+        {
+            System.out.print("Informe o nome do arquivo de entrada: ");
+            Path arquivo = Paths.get(Teclado.getUmString().trim());
+            FonteVetor fonte = origem.equalsIgnoreCase("B") ? FonteVetor.deArquivoBinario(arquivo)
+                                                            : FonteVetor.deArquivoTexto(arquivo);
+            if (fonte.tamanho() == 0)
+            {
+                System.out.println("Arquivo sem elementos.");
+                fonte.close();
+                return null;
+            }
+            System.out.println("[D] " + fonte.tamanho() + " elementos em " + arquivo);
+            return fonte;
+        }
+
+        System.out.print("Digite o tamanho do vetor a ser ordenado: ");
+        int tamanho = Teclado.getUmInt();
+        if (tamanho <= 0)
+        {
+            System.out.println("Informe um tamanho positivo.");
+            return null;
+        }
+
+        byte[] vetor = gerarVetor(tamanho);
+        System.out.print("Deseja imprimir o vetor gerado? [S/N]: ");
+        if (Teclado.getUmString().equalsIgnoreCase("S"))
+            System.out.println(Arrays.toString(vetor));
+        return FonteVetor.deMemoria(vetor);
+    }
+
+    private static byte[] ordenarDistribuido(FonteVetor fonte, Multiplexador[] servidores, String[] hosts, int porta) throws Exception
+    {
+        System.out.print("Usar protocolo de histograma? [S/N]: ");
+        boolean histograma = Teclado.getUmString().equalsIgnoreCase("S");
+        boolean particionado = false;
+        if (!histograma)
         {
-            trabalhadores[i] = new Trabalhador(servidores[i], fatias[i], hosts[i]);
-            trabalhadores[i].start();
+            System.out.print("Particionar por faixas de valores, sem intercalacao final? [S/N]: ");
+            particionado = Teclado.getUmString().equalsIgnoreCase("S");
         }
+        System.out.print("Transferir em fluxo de fragmentos? [S/N]: ");
+        boolean fluxo = Teclado.getUmString().equalsIgnoreCase("S");
+
+        long inicioDistribuido = System.currentTimeMillis();
+        byte[] resultadoDistribuido = distribuir(fonte, servidores, hosts, porta, histograma, particionado, fluxo);
+        long fimDistribuido = System.currentTimeMillis();
+
+        // A comparacao precisa do vetor inteiro, entao so acontece depois da
+        // ordenacao distribuida e nao pesa no tempo medido acima.
+        long inicioSequencial = System.currentTimeMillis();
+        byte[] resultadoSequencial = ParallelMergeSorter.sortSequential(fonte.lerTudo());
+        long fimSequencial = System.currentTimeMillis();
+
+        System.out.println("\n--- Estatisticas ---");
+        System.out.println("Tempo distribuido: " + (fimDistribuido - inicioDistribuido) + " ms");
+        System.out.println("Tempo sequencial:  " + (fimSequencial - inicioSequencial) + " ms");
+        System.out.println("Resultados identicos? " + Arrays.equals(resultadoDistribuido, resultadoSequencial));
+        return resultadoDistribuido;
+    }
+
+    private static byte[] distribuir(FonteVetor fonte, Multiplexador[] servidores, String[] hosts, int porta,
+                                     boolean histograma, boolean particionado, boolean fluxo) throws Exception
+    {
+        reconectarServidores(servidores, hosts, porta);
+        if (particionado)
+            return distribuirParticionado(fonte, servidores, hosts, fluxo);
+
+        EscalonadorDinamico escalonador = new EscalonadorDinamico(fonte, servidores, hosts, histograma, fluxo);
+        escalonador.executar(conversas);
+        if (!histograma)
+            return ParallelMergeSorter.mergeAllForkJoin(escalonador.getPartes());
 
-        for (int i = 0; i < trabalhadores.length; i++)
+        byte[] resultado = new byte[fonte.tamanho()];
+        ParallelMergeSorter.expandirHistograma(escalonador.getContagens(), resultado, 0, ParallelMergeSorter.getPool().getParallelism());
+        return resultado;
+    }
+
+    // Separadores tirados de uma amostra da entrada dividem o vetor em faixas
+    // de valores, e cada Receptor so recebe as chaves da sua faixa. Como as
+    // faixas ja estao na ordem global, as respostas voltam para a posicao de
+    // cada uma e o vetor fica ordenado sem o mergeAll no Distribuidor.
+    // A entrada e particionada direto da fonte, por regioes, entao so o
+    // vetor de resultado ocupa o heap inteiro.
+    private static byte[] distribuirParticionado(FonteVetor fonte, Multiplexador[] servidores, String[] hosts, boolean fluxo)
+        throws Exception
+    {
+        int ativos = 0;
+        for (Multiplexador servidor : servidores)
         {
-            Trabalhador trabalhador = trabalhadores[i];
+            if (servidor != null && servidor.isAtivo())
+                ativos++;
+        }
+
+        byte[] resultado = new byte[fonte.tamanho()];
+        int[] limites = OrdenadorAmostragem.particionar(fonte, resultado, Math.max(1, ativos) * FAIXAS_POR_RECEPTOR);
+
+        EscalonadorDinamico escalonador = new EscalonadorDinamico(resultado, limites, servidores, hosts, fluxo);
+        escalonador.executar(conversas);
+        return resultado;
+    }
+
+    // Modo em lote: conecta uma vez aos hosts e executa cada trabalho do
+    // arquivo de lote (ou o unico descrito nos argumentos), registrando os
+    // tempos em CSV. Os registros [D] vao para a saida de erro para nao se
+    // misturarem ao CSV quando ele sai na saida padrao.
+    private static void executarLote(String[] args)
+    {
+        Opcoes base;
+        List<Opcoes> trabalhos;
+        try
+        {
+            base = Opcoes.deArgumentos(args);
+            trabalhos = base.trabalhos();
+            if (base.tem("threads"))
+                ParallelMergeSorter.configurarPool(base.inteiro("threads", 1));
+            conversas = ModoExecucao.novoExecutorConversas(base.texto("modo", ModoExecucao.PLATAFORMA));
+        }
+        catch (Exception erro)
+        {
+            System.err.println("[D] Configuracao invalida: " + erro.getMessage());
+            return;
+        }
+
+        String[] hosts = base.lista("hosts", "127.0.0.1");
+        int porta = base.inteiro("porta", PORTA_PADRAO);
+
+        try (RelatorioLote relatorio = RelatorioLote.abrir(base.texto("resultados", null)))
+        {
+            System.setOut(System.err);
+
+            Multiplexador[] servidores = conectarServidores(hosts, porta);
+            if (servidores == null)
+                return;
+
             try
             {
-                trabalhador.join();
+                for (int t = 0; t < trabalhos.size(); t++)
+                    executarTrabalho(trabalhos.get(t), t + 1, servidores, hosts, porta, relatorio);
             }
-            catch (InterruptedException e)
+            finally
             {
-                Thread.currentThread().interrupt();
-                throw new Exception("Processamento interrompido.", e);
+                encerrarServidores(servidores);
             }
-            partesOrdenadas.add(trabalhador.getResultado());
         }
-
-        return partesOrdenadas;
+        catch (Exception erro)
+        {
+            System.err.println("[D] Falha no lote: " + erro.getMessage());
+        }
+        finally
+        {
+            conversas.shutdown();
+        }
     }
 
-    private static byte[] gerarVetor(int tamanho)
+    private static void executarTrabalho(Opcoes trabalho, int numero, Multiplexador[] servidores, String[] hosts, int porta,
+                                         RelatorioLote relatorio)
     {
-        byte[] vetor = new byte[tamanho];
-        for (int i = 0; i < tamanho; i++)
-            vetor[i] = (byte) ThreadLocalRandom.current().nextInt(Byte.MIN_VALUE, Byte.MAX_VALUE);
-        return vetor;
+        String nome = trabalho.texto("nome", String.valueOf(numero));
+        String motor = "distribuido";
+        int repeticao = 1;
+        long leitura = -1;
+        FonteVetor fonte = null;
+        try
+        {
+            boolean histograma = trabalho.sim("histograma", false);
+            boolean particionado = !histograma && trabalho.sim("particionado", false);
+            boolean fluxo = trabalho.sim("fluxo", false);
+            motor = (histograma ? "histograma" : particionado ? "faixas" : "partes") + (fluxo ? "+fluxo" : "");
+            int repeticoes = Math.max(1, trabalho.inteiro("repeticoes", 1));
+
+            long inicio = System.nanoTime();
+            fonte = trabalho.fonte();
+            leitura = System.nanoTime() - inicio;
+            if (fonte.tamanho() == 0)
+                throw new Exception("Entrada sem elementos");
+
+            for (; repeticao <= repeticoes; repeticao++)
+            {
+                inicio = System.nanoTime();
+                byte[] resultado = distribuir(fonte, servidores, hosts, porta, histograma, particionado, fluxo);
+                long ordenacao = System.nanoTime() - inicio;
+
+                String verificado = "";
+                if (trabalho.sim("verificar", false))
+                    verificado = Arrays.equals(resultado, ParallelMergeSorter.sortSequential(fonte.lerTudo())) ? "sim" : "nao";
+
+                long gravacao = -1;
+                String saida = trabalho.texto("saida", null);
+                if (saida != null && repeticao == repeticoes)
+                {
+                    inicio = System.nanoTime();
+                    GravadorVetor.gravar(resultado, saida);
+                    gravacao = System.nanoTime() - inicio;
+                }
+
+                relatorio.registrar(nome, repeticao, motor, resultado.length, leitura, ordenacao, gravacao, verificado, null);
+            }
+        }
+        catch (Exception erro)
+        {
+            System.err.println("[D] Trabalho " + nome + " falhou: " + erro.getMessage());
+            relatorio.registrar(nome, repeticao, motor, fonte == null ? 0 : fonte.tamanho(), leitura, -1, -1, "", String.valueOf(erro.getMessage()));
+        }
+        finally
+        {
+            fecharFonte(fonte);
+        }
     }
 
-    private static byte[][] fatiarVetor(byte[] vetor, int partes)
+    private static void fecharFonte(FonteVetor fonte)
     {
-        byte[][] fatias = new byte[partes][];
-        int base = vetor.length / partes;
-        int sobra = vetor.length % partes;
-        int inicio = 0;
-
-        for (int i = 0; i < partes; i++)
+        if (fonte == null)
+            return;
+        try
         {
-            int incremento = base + (i < sobra ? 1 : 0);
-            int fim = inicio + incremento;
-            byte[] fatia = Arrays.copyOfRange(vetor, inicio, fim);
-            fatias[i] = fatia;
-            inicio = fim;
+            fonte.close();
         }
+        catch (Exception erro)
+        {
+            System.err.println("[D] Erro ao fechar a entrada: " + erro.getMessage());
+        }
+    }
 
-        return fatias;
+    private static byte[] gerarVetor(int tamanho)
+    {
+        byte[] vetor = new byte[tamanho];
+        for (int i = 0; i < tamanho; i++)
+            vetor[i] = (byte) ThreadLocalRandom.current().nextInt(Byte.MIN_VALUE, Byte.MAX_VALUE);
+        return vetor;
     }
 
     private static void salvarEmArquivo(byte[] vetor, String nomeArquivo)
@@ -219,13 +429,9 @@ public class Distribuidor
         if (nomeArquivo == null || nomeArquivo.trim().isEmpty())
             nomeArquivo = "vetor-ordenado.txt";
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(nomeArquivo)))
+        try
         {
-            for (int i = 0; i < vetor.length; i++)
-            {
-                writer.write(Byte.toString(vetor[i]));
-                writer.newLine();
-            }
+            GravadorVetor.gravar(vetor, nomeArquivo);
             System.out.println("[D] Resultado salvo em " + nomeArquivo);
         }
         catch (Exception erro)
@@ -234,16 +440,15 @@ public class Distribuidor
         }
     }
 
-    private static void encerrarServidores(Parceiro[] servidores)
+    private static void encerrarServidores(Multiplexador[] servidores)
     {
-        for (Parceiro servidor : servidores)
+        for (Multiplexador servidor : servidores)
         {
             if (servidor == null)
                 continue;
             try
             {
-                servidor.receba(new ComunicadoEncerramento());
-                servidor.adeus();
+                servidor.encerrar();
             }
             catch (Exception erro)
             {
@@ -0,0 +1,399 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeoutException;
+
+public class EscalonadorDinamico
+{
+    public static final int TAMANHO_MINIMO = 1 << 16;
+    public static final int TAMANHO_MAXIMO = 1 << 24;
+    public static final long DURACAO_ALVO_MS = 250;
+    public static final int TAREFAS_POR_SERVIDOR = 2;
+
+    public static final int TENTATIVAS_MAXIMAS = 3;
+    public static final long PRAZO_MINIMO_MS = 30_000;
+    public static final int FATOR_PRAZO = 20;
+    public static final long ESPECULACAO_MINIMA_MS = 1_000;
+    public static final int FATOR_ESPECULACAO = 3;
+    public static final long INTERVALO_VERIFICACAO_MS = 50;
+
+    private final FonteVetor fonte;
+    private final int total;
+    private final List<No> nos = new ArrayList<>();
+    private final boolean histograma;
+    private final boolean fluxo;
+    private final List<byte[]> partes = Collections.synchronizedList(new ArrayList<byte[]>());
+    private final byte[] particionado;
+    private final long[] contagens = new long[ParallelMergeSorter.VALORES_BYTE];
+
+    private final Deque<Tarefa> repetir = new ArrayDeque<>();
+    private final Deque<Tarefa> faixas = new ArrayDeque<>();
+    private final Set<Tarefa> emExecucao = new LinkedHashSet<>();
+    private int proximo;
+    private int concluidos;
+    private int consumidoresAtivos;
+    private Exception falhaFatal;
+
+    public EscalonadorDinamico(byte[] vetor, Multiplexador[] servidores, String[] hosts, boolean histograma, boolean fluxo) throws Exception
+    {
+        this(vetor == null ? null : FonteVetor.deMemoria(vetor), servidores, hosts, histograma, fluxo);
+    }
+
+    public EscalonadorDinamico(FonteVetor fonte, Multiplexador[] servidores, String[] hosts, boolean histograma, boolean fluxo) throws Exception
+    {
+        this(fonte, fonte == null ? 0 : fonte.tamanho(), null, servidores, hosts, histograma, fluxo);
+    }
+
+    // Vetor particionado por OrdenadorAmostragem.particionar: cada balde par
+    // [limites[b], limites[b + 1]) vira uma tarefa inteira, nunca dividida,
+    // e volta ordenado para a mesma posicao; os baldes impares so tem
+    // valores iguais e nem sao enviados. Sem intercalacao no final, o proprio
+    // vetor particionado termina ordenado.
+    public EscalonadorDinamico(byte[] particionado, int[] limites, Multiplexador[] servidores, String[] hosts, boolean fluxo) throws Exception
+    {
+        this(particionado == null ? null : FonteVetor.deMemoria(particionado), aOrdenar(limites), particionado,
+             servidores, hosts, false, fluxo);
+
+        for (int b = 0; b + 1 < limites.length; b += 2)
+        {
+            if (limites[b + 1] - limites[b] > 1)
+                this.faixas.add(new Tarefa(limites[b], limites[b + 1]));
+        }
+        this.proximo = this.total;
+    }
+
+    private EscalonadorDinamico(FonteVetor fonte, int total, byte[] particionado, Multiplexador[] servidores, String[] hosts,
+                                boolean histograma, boolean fluxo) throws Exception
+    {
+        if (fonte == null)
+            throw new Exception("Vetor ausente");
+
+        if (servidores != null)
+        {
+            for (int s = 0; s < servidores.length; s++)
+            {
+                if (servidores[s] != null && servidores[s].isAtivo())
+                    this.nos.add(new No(servidores[s], hosts[s]));
+            }
+        }
+
+        if (this.nos.isEmpty())
+            throw new Exception("Nenhum servidor disponivel");
+
+        this.fonte = fonte;
+        this.total = total;
+        this.particionado = particionado;
+        this.histograma = histograma;
+        this.fluxo = fluxo;
+    }
+
+    private static int aOrdenar(int[] limites)
+    {
+        int soma = 0;
+        for (int b = 0; b + 1 < limites.length; b += 2)
+        {
+            if (limites[b + 1] - limites[b] > 1)
+                soma += limites[b + 1] - limites[b];
+        }
+        return soma;
+    }
+
+    // Retorna assim que todas as faixas tiverem um resultado: copias
+    // especulativas perdedoras terminam em segundo plano e sao descartadas.
+    public void executar(ExecutorService conversas) throws Exception
+    {
+        synchronized (this)
+        {
+            for (No no : this.nos)
+            {
+                for (int t = 0; t < TAREFAS_POR_SERVIDOR; t++)
+                {
+                    conversas.execute(new Consumidor(no));
+                    this.consumidoresAtivos++;
+                }
+            }
+
+            try
+            {
+                while (this.falhaFatal == null && this.concluidos < this.total && this.consumidoresAtivos > 0)
+                    this.wait();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                this.falhaFatal = new Exception("Processamento interrompido.", e);
+            }
+
+            if (this.falhaFatal != null)
+                throw this.falhaFatal;
+
+            if (this.concluidos < this.total)
+                throw new Exception("Nenhum receptor disponivel para concluir a ordenacao");
+        }
+    }
+
+    public List<byte[]> getPartes()
+    {
+        return this.partes;
+    }
+
+    public long[] getContagens()
+    {
+        synchronized (this.contagens)
+        {
+            return this.contagens.clone();
+        }
+    }
+
+    // Ordem de preferencia: faixas que falharam, faixas novas e, por fim,
+    // uma copia especulativa da faixa mais atrasada de outro no.
+    private synchronized Tarefa proxima(No no) throws InterruptedException
+    {
+        for (;;)
+        {
+            if (this.falhaFatal != null || no.suspeito || !no.servidor.isAtivo())
+                return null;
+
+            Tarefa tarefa = this.repetir.poll();
+            if (tarefa == null)
+                tarefa = this.faixas.poll();
+            if (tarefa == null && this.proximo < this.total)
+                tarefa = this.reservar(no.proximoTamanho());
+
+            if (tarefa != null)
+            {
+                tarefa.dono = no;
+                tarefa.previstoMs = no.previsaoMs(tarefa.tamanho());
+                tarefa.iniciadaEm = System.nanoTime();
+                tarefa.copias++;
+                this.emExecucao.add(tarefa);
+                return tarefa;
+            }
+
+            Tarefa atrasada = this.maisAtrasada(no);
+            if (atrasada != null)
+            {
+                atrasada.copias++;
+                System.out.println("[D] Reexecutando faixa [" + atrasada.inicio + ", " + atrasada.fim + ") de " + atrasada.dono.host + " em " + no.host);
+                return atrasada;
+            }
+
+            if (this.emExecucao.isEmpty())
+                return null;
+
+            this.wait(INTERVALO_VERIFICACAO_MS);
+        }
+    }
+
+    // Divide o que resta entre todos os consumidores para que nenhum no
+    // lento segure um pedaco grande no fim do vetor.
+    private Tarefa reservar(int desejado)
+    {
+        int restante = this.total - this.proximo;
+        int consumidores = this.nos.size() * TAREFAS_POR_SERVIDOR;
+        int limite = Math.max(TAMANHO_MINIMO, restante / consumidores);
+        int tamanho = Math.min(restante, Math.min(desejado, limite));
+
+        Tarefa tarefa = new Tarefa(this.proximo, this.proximo + tamanho);
+        this.proximo += tamanho;
+        return tarefa;
+    }
+
+    private Tarefa maisAtrasada(No no)
+    {
+        long agora = System.nanoTime();
+        Tarefa escolhida = null;
+        long maiorAtraso = 0;
+
+        for (Tarefa tarefa : this.emExecucao)
+        {
+            if (tarefa.copias > 1 || tarefa.dono == no)
+                continue;
+
+            long decorridoMs = (agora - tarefa.iniciadaEm) / 1_000_000;
+            long limiteMs = Math.max(ESPECULACAO_MINIMA_MS, FATOR_ESPECULACAO * tarefa.previstoMs);
+            if (decorridoMs > limiteMs && decorridoMs - limiteMs > maiorAtraso)
+            {
+                escolhida = tarefa;
+                maiorAtraso = decorridoMs - limiteMs;
+            }
+        }
+
+        return escolhida;
+    }
+
+    private synchronized void concluir(Tarefa tarefa, byte[] resultado, long[] parcial)
+    {
+        tarefa.copias--;
+        if (tarefa.concluida)
+            return;
+
+        // Uma copia especulativa pode ler a faixa durante esta escrita, mas
+        // a tarefa ja estara concluida e o resultado dela sera descartado.
+        if (histograma)
+            this.acumular(parcial);
+        else if (this.particionado != null)
+            System.arraycopy(resultado, 0, this.particionado, tarefa.inicio, tarefa.tamanho());
+        else
+            this.partes.add(resultado);
+
+        tarefa.concluida = true;
+        this.emExecucao.remove(tarefa);
+        this.concluidos += tarefa.tamanho();
+        this.notifyAll();
+    }
+
+    private synchronized void falhar(Tarefa tarefa, No no, Exception erro)
+    {
+        tarefa.copias--;
+        if (tarefa.concluida || tarefa.copias > 0)
+            return;
+
+        this.emExecucao.remove(tarefa);
+        tarefa.tentativas++;
+        if (tarefa.tentativas >= TENTATIVAS_MAXIMAS)
+        {
+            if (this.falhaFatal == null)
+                this.falhaFatal = new Exception("Faixa [" + tarefa.inicio + ", " + tarefa.fim + ") falhou " + tarefa.tentativas + " vezes: " + erro.getMessage(), erro);
+        }
+        else
+        {
+            System.err.println("[D] Faixa [" + tarefa.inicio + ", " + tarefa.fim + ") falhou em " + no.host + " e sera reatribuida: " + erro.getMessage());
+            this.repetir.add(tarefa);
+        }
+        this.notifyAll();
+    }
+
+    private synchronized void abandonar()
+    {
+        this.consumidoresAtivos--;
+        this.notifyAll();
+    }
+
+    private void acumular(long[] parcial)
+    {
+        synchronized (this.contagens)
+        {
+            for (int v = 0; v < this.contagens.length; v++)
+                this.contagens[v] += parcial[v];
+        }
+    }
+
+    private static final class Tarefa
+    {
+        final int inicio;
+        final int fim;
+        No dono;
+        long iniciadaEm;
+        long previstoMs;
+        int copias;
+        int tentativas;
+        boolean concluida;
+
+        Tarefa(int inicio, int fim)
+        {
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        int tamanho()
+        {
+            return this.fim - this.inicio;
+        }
+    }
+
+    private static final class No
+    {
+        final Multiplexador servidor;
+        final String host;
+        volatile boolean suspeito;
+        private double bytesPorMs;
+
+        No(Multiplexador servidor, String host)
+        {
+            this.servidor = servidor;
+            this.host = host;
+        }
+
+        synchronized int proximoTamanho()
+        {
+            if (this.bytesPorMs <= 0)
+                return TAMANHO_MINIMO;
+
+            double ideal = this.bytesPorMs * DURACAO_ALVO_MS;
+            return (int) Math.max(TAMANHO_MINIMO, Math.min(TAMANHO_MAXIMO, ideal));
+        }
+
+        synchronized long previsaoMs(int bytes)
+        {
+            return this.bytesPorMs <= 0 ? DURACAO_ALVO_MS : (long) (bytes / this.bytesPorMs);
+        }
+
+        synchronized void registrar(int bytes, long nanos)
+        {
+            double medido = bytes / Math.max(nanos / 1_000_000.0, 0.001);
+            this.bytesPorMs = this.bytesPorMs <= 0 ? medido : 0.5 * this.bytesPorMs + 0.5 * medido;
+        }
+    }
+
+    private final class Consumidor implements Runnable
+    {
+        private final No no;
+
+        Consumidor(No no)
+        {
+            this.no = no;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                Tarefa tarefa;
+                while ((tarefa = proxima(this.no)) != null)
+                    this.processar(tarefa);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            finally
+            {
+                abandonar();
+            }
+        }
+
+        private void processar(Tarefa tarefa)
+        {
+            long prazoMs = Math.max(PRAZO_MINIMO_MS, FATOR_PRAZO * tarefa.previstoMs);
+            long inicio = System.nanoTime();
+            try
+            {
+                byte[] parte = fonte.ler(tarefa.inicio, tarefa.tamanho());
+                Trabalhador trabalhador = new Trabalhador(this.no.servidor, parte, this.no.host, histograma, fluxo, prazoMs);
+                trabalhador.run();
+
+                long[] parcial = histograma ? trabalhador.getContagens() : null;
+                byte[] resultado = histograma ? null : trabalhador.getResultado();
+                if (resultado != null && resultado.length != parte.length)
+                    throw new Exception("Receptor " + this.no.host + " devolveu " + resultado.length + " de " + parte.length + " elementos");
+                this.no.registrar(parte.length, System.nanoTime() - inicio);
+
+                concluir(tarefa, resultado, parcial);
+            }
+            catch (Exception erro)
+            {
+                // Um no que deixou de responder nao recebe novas faixas nesta ordenacao.
+                if (erro.getCause() instanceof TimeoutException)
+                    this.no.suspeito = true;
+                falhar(tarefa, this.no, erro);
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+import java.util.Arrays;
+
+class Trabalhador implements Runnable
+{
+    private final Multiplexador servidor;
+    private final byte[] parte;
+    private final String host;
+    private final boolean histograma;
+    private final boolean fluxo;
+    private final long prazoMs;
+    private long id;
+    private byte[] resultado;
+    private long[] contagens;
+    private Exception falha;
+
+    Trabalhador(Multiplexador servidor, byte[] parte, String host, boolean histograma, boolean fluxo)
+    {
+        this(servidor, parte, host, histograma, fluxo, 0);
+    }
+
+    Trabalhador(Multiplexador servidor, byte[] parte, String host, boolean histograma, boolean fluxo, long prazoMs)
+    {
+        this.servidor = servidor;
+        this.parte = parte;
+        this.host = host;
+        this.histograma = histograma;
+        this.fluxo = fluxo;
+        this.prazoMs = prazoMs;
+    }
+
+    @Override
+    public void run()
+    {
+        try
+        {
+            System.out.println("[D] Enviando parte de tamanho " + this.parte.length + " para " + this.host);
+            if (this.fluxo)
+                this.enviarEmFluxo();
+            else if (this.histograma)
+                this.id = this.servidor.enviar(new PedidoHistograma(this.parte, false));
+            else
+                this.id = this.servidor.enviar(new Pedido(this.parte, false));
+
+            if (this.histograma)
+                this.receberHistograma();
+            else if (this.fluxo)
+                this.receberFragmentos();
+            else
+                this.receberResposta();
+        }
+        catch (Exception e)
+        {
+            this.falha = e;
+        }
+        finally
+        {
+            this.servidor.concluir(this.id);
+        }
+    }
+
+    private void enviarEmFluxo() throws Exception
+    {
+        this.id = this.servidor.enviar(new PedidoFluxo(this.parte.length, this.histograma));
+
+        int enviados = 0;
+        while (enviados < this.parte.length)
+        {
+            int fim = Math.min(this.parte.length, enviados + Fragmento.TAMANHO_PADRAO);
+            this.servidor.enviarNoFluxo(this.id, new Fragmento(Arrays.copyOfRange(this.parte, enviados, fim), false));
+            enviados = fim;
+        }
+    }
+
+    private Comunicado receber() throws Exception
+    {
+        Comunicado resposta = this.servidor.aguardar(this.id, this.prazoMs);
+        if (resposta instanceof ComunicadoRecusa)
+            throw new IllegalStateException("Receptor " + this.host + " recusou o pedido: " + ((ComunicadoRecusa) resposta).getMotivo());
+        return resposta;
+    }
+
+    private void receberHistograma() throws Exception
+    {
+        Comunicado resposta = this.receber();
+        if (!(resposta instanceof RespostaHistograma))
+            throw new IllegalStateException("Objeto inesperado do receptor " + this.host);
+        this.contagens = ((RespostaHistograma) resposta).getContagens();
+        System.out.println("[D] Histograma recebido de " + this.host + ". Elementos: " + ((RespostaHistograma) resposta).total());
+    }
+
+    private void receberFragmentos() throws Exception
+    {
+        byte[] destino = new byte[this.parte.length];
+
+        int recebidos = 0;
+        while (recebidos < destino.length)
+        {
+            Comunicado resposta = this.receber();
+            if (!(resposta instanceof Fragmento))
+                throw new IllegalStateException("Objeto inesperado do receptor " + this.host);
+
+            byte[] dados = ((Fragmento) resposta).getDadosSemCopia();
+            if (recebidos + dados.length > destino.length)
+                throw new IllegalStateException("Receptor " + this.host + " devolveu elementos demais");
+
+            System.arraycopy(dados, 0, destino, recebidos, dados.length);
+            recebidos += dados.length;
+        }
+
+        this.resultado = destino;
+        System.out.println("[D] Fluxo recebido de " + this.host + ". Elementos: " + this.resultado.length);
+    }
+
+    private void receberResposta() throws Exception
+    {
+        Comunicado resposta = this.receber();
+        if (!(resposta instanceof Resposta))
+            throw new IllegalStateException("Objeto inesperado do receptor " + this.host);
+        this.resultado = ((Resposta) resposta).getVetorSemCopia();
+        System.out.println("[D] Resposta recebida de " + this.host + ". Elementos: " + this.resultado.length);
+    }
+
+    public byte[] getResultado() throws Exception
+    {
+        if (this.falha != null)
+            throw new Exception("Falha ao comunicar com " + this.host + ": " + this.falha.getMessage(), this.falha);
+        return this.resultado == null ? new byte[0] : this.resultado;
+    }
+
+    public long[] getContagens() throws Exception
+    {
+        if (this.falha != null)
+            throw new Exception("Falha ao comunicar com " + this.host + ": " + this.falha.getMessage(), this.falha);
+        return this.contagens == null ? new long[ParallelMergeSorter.VALORES_BYTE] : this.contagens;
+    }
+}
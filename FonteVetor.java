@@ -0,0 +1,264 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+// Origem dos elementos a ordenar. As leituras por faixa podem vir de varias
+// threads ao mesmo tempo, uma por fatia despachada.
+public abstract class FonteVetor implements AutoCloseable
+{
+    public static final int TAMANHO_MAXIMO = Integer.MAX_VALUE - 8;
+
+    private static final int BLOCO_LEITURA = 1 << 20;
+    private static final int LIMIAR_TEXTO_PARALELO = 1 << 20;
+
+    public abstract int tamanho();
+
+    public abstract byte[] ler(int inicio, int quantidade) throws IOException;
+
+    public byte[] lerTudo() throws IOException
+    {
+        return this.ler(0, this.tamanho());
+    }
+
+    @Override
+    public void close() throws IOException
+    {}
+
+    public static FonteVetor deMemoria(byte[] vetor)
+    {
+        if (vetor == null)
+            throw new IllegalArgumentException("Vetor ausente");
+
+        return new Memoria(vetor);
+    }
+
+    // O arquivo e mapeado uma unica vez; cada fatia e copiada direto da sua
+    // regiao do mapeamento, sem montar o vetor inteiro no heap.
+    public static FonteVetor deArquivoBinario(Path arquivo) throws IOException
+    {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ))
+        {
+            long tamanho = canal.size();
+            if (tamanho > TAMANHO_MAXIMO)
+                throw new IOException("Arquivo com " + tamanho + " bytes excede um vetor; use a ordenacao externa");
+
+            return new Mapeada(canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanho));
+        }
+    }
+
+    public static FonteVetor deArquivoTexto(Path arquivo) throws IOException
+    {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ))
+        {
+            long tamanho = canal.size();
+            if (tamanho > TAMANHO_MAXIMO)
+                throw new IOException("Arquivo texto com " + tamanho + " bytes e grande demais");
+
+            return new Memoria(interpretarTexto(canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanho)));
+        }
+    }
+
+    public static FonteVetor deFluxo(InputStream entrada) throws IOException
+    {
+        ByteArrayOutputStream acumulado = new ByteArrayOutputStream(BLOCO_LEITURA);
+        byte[] bloco = new byte[BLOCO_LEITURA];
+        int lidos;
+        while ((lidos = entrada.read(bloco)) > 0)
+        {
+            if ((long) acumulado.size() + lidos > TAMANHO_MAXIMO)
+                throw new IOException("Entrada excede o tamanho maximo de um vetor");
+            acumulado.write(bloco, 0, lidos);
+        }
+
+        return new Memoria(acumulado.toByteArray());
+    }
+
+    // Valores decimais entre -128 e 127 separados por espacos, virgulas ou
+    // quebras de linha. O texto e cortado em trechos nos separadores; cada
+    // trecho e contado e depois convertido em paralelo na sua posicao final.
+    static byte[] interpretarTexto(ByteBuffer texto) throws IOException
+    {
+        int tamanho = texto.limit();
+        int partes = Math.max(1, Math.min(ParallelMergeSorter.getPool().getParallelism(), tamanho / LIMIAR_TEXTO_PARALELO));
+
+        int[] cortes = new int[partes + 1];
+        cortes[partes] = tamanho;
+        for (int p = 1; p < partes; p++)
+        {
+            int corte = Math.max(cortes[p - 1], (int) ((long) tamanho * p / partes));
+            while (corte < tamanho && !separador(texto.get(corte)))
+                corte++;
+            cortes[p] = corte;
+        }
+
+        List<TarefaTexto> contagens = new ArrayList<>(partes);
+        for (int p = 0; p < partes; p++)
+            contagens.add(new TarefaTexto(texto, cortes[p], cortes[p + 1], null, 0));
+        executar(contagens);
+
+        long total = 0;
+        for (TarefaTexto contagem : contagens)
+            total += contagem.quantidade;
+        if (total > TAMANHO_MAXIMO)
+            throw new IOException("Texto com " + total + " valores excede um vetor");
+
+        byte[] vetor = new byte[(int) total];
+        List<TarefaTexto> conversoes = new ArrayList<>(partes);
+        int posicao = 0;
+        for (int p = 0; p < partes; p++)
+        {
+            conversoes.add(new TarefaTexto(texto, cortes[p], cortes[p + 1], vetor, posicao));
+            posicao += contagens.get(p).quantidade;
+        }
+        executar(conversoes);
+        return vetor;
+    }
+
+    private static void executar(List<TarefaTexto> tarefas) throws IOException
+    {
+        ParallelMergeSorter.getPool().invoke(new RecursiveAction()
+        {
+            @Override
+            protected void compute()
+            {
+                invokeAll(tarefas);
+            }
+        });
+
+        for (TarefaTexto tarefa : tarefas)
+        {
+            if (tarefa.falha != null)
+                throw tarefa.falha;
+        }
+    }
+
+    private static boolean separador(byte c)
+    {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == ',';
+    }
+
+    private static final class TarefaTexto extends RecursiveAction
+    {
+        private final ByteBuffer texto;
+        private final int inicio;
+        private final int fim;
+        private final byte[] destino;
+        private final int deslocamento;
+        private int quantidade;
+        private IOException falha;
+
+        private TarefaTexto(ByteBuffer texto, int inicio, int fim, byte[] destino, int deslocamento)
+        {
+            this.texto = texto;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.destino = destino;
+            this.deslocamento = deslocamento;
+        }
+
+        @Override
+        protected void compute()
+        {
+            int i = this.inicio;
+            while (i < this.fim)
+            {
+                byte c = this.texto.get(i);
+                if (separador(c))
+                {
+                    i++;
+                    continue;
+                }
+
+                int inicioValor = i;
+                boolean negativo = c == '-';
+                if (negativo || c == '+')
+                    i++;
+
+                int valor = 0;
+                int digitos = 0;
+                while (i < this.fim && !separador(this.texto.get(i)))
+                {
+                    int digito = this.texto.get(i) - '0';
+                    if (digito < 0 || digito > 9 || ++digitos > 3)
+                    {
+                        this.falha = new IOException("Valor invalido na posicao " + inicioValor + " do texto");
+                        return;
+                    }
+                    valor = valor * 10 + digito;
+                    i++;
+                }
+
+                valor = negativo ? -valor : valor;
+                if (digitos == 0 || valor < Byte.MIN_VALUE || valor > Byte.MAX_VALUE)
+                {
+                    this.falha = new IOException("Valor fora do intervalo de byte na posicao " + inicioValor + " do texto");
+                    return;
+                }
+
+                if (this.destino != null)
+                    this.destino[this.deslocamento + this.quantidade] = (byte) valor;
+                this.quantidade++;
+            }
+        }
+    }
+
+    private static final class Memoria extends FonteVetor
+    {
+        private final byte[] vetor;
+
+        private Memoria(byte[] vetor)
+        {
+            this.vetor = vetor;
+        }
+
+        @Override
+        public int tamanho()
+        {
+            return this.vetor.length;
+        }
+
+        @Override
+        public byte[] ler(int inicio, int quantidade)
+        {
+            return Arrays.copyOfRange(this.vetor, inicio, inicio + quantidade);
+        }
+    }
+
+    private static final class Mapeada extends FonteVetor
+    {
+        private final MappedByteBuffer mapa;
+
+        private Mapeada(MappedByteBuffer mapa)
+        {
+            this.mapa = mapa;
+        }
+
+        @Override
+        public int tamanho()
+        {
+            return this.mapa.limit();
+        }
+
+        @Override
+        public byte[] ler(int inicio, int quantidade)
+        {
+            if (inicio < 0 || quantidade < 0 || inicio + quantidade > this.mapa.limit())
+                throw new ArrayIndexOutOfBoundsException("Faixa invalida: [" + inicio + ", " + (inicio + quantidade) + ")");
+
+            byte[] faixa = new byte[quantidade];
+            ByteBuffer leitura = this.mapa.duplicate();
+            leitura.position(inicio);
+            leitura.get(faixa);
+            return faixa;
+        }
+    }
+}
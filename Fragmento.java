@@ -0,0 +1,36 @@
+import java.util.Arrays;
+
+public class Fragmento extends Comunicado
+{
+    public static final int TAMANHO_PADRAO = 1 << 20;
+
+    private final byte[] dados;
+
+    public Fragmento(byte[] dados)
+    {
+        this(dados, true);
+    }
+
+    Fragmento(byte[] dados, boolean copiar)
+    {
+        if (dados == null)
+            throw new IllegalArgumentException("Fragmento ausente");
+
+        this.dados = copiar ? Arrays.copyOf(dados, dados.length) : dados;
+    }
+
+    public byte[] getDados()
+    {
+        return Arrays.copyOf(this.dados, this.dados.length);
+    }
+
+    byte[] getDadosSemCopia()
+    {
+        return this.dados;
+    }
+
+    public int tamanho()
+    {
+        return this.dados.length;
+    }
+}
@@ -0,0 +1,187 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+public final class GravadorVetor
+{
+    public static final String EXTENSAO_BINARIA = ".bin";
+    public static final String EXTENSAO_RLE     = ".rle";
+
+    private static final int JANELA_MAPEADA = 1 << 24;
+    private static final int BLOCO_ESCRITA  = 1 << 20;
+    private static final int LIMIAR_TEXTO_PARALELO = 1 << 18;
+
+    private static final byte[][] TEXTO = new byte[ParallelMergeSorter.VALORES_BYTE][];
+
+    static
+    {
+        String quebra = System.lineSeparator();
+        for (int v = 0; v < TEXTO.length; v++)
+            TEXTO[v] = (Byte.toString((byte) (v + Byte.MIN_VALUE)) + quebra).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private GravadorVetor() {}
+
+    // Escolhe o formato pela extensao: .bin grava os bytes crus, .rle grava
+    // pares (valor, contagem) e qualquer outra grava um valor por linha.
+    public static void gravar(byte[] vetor, String nomeArquivo) throws IOException
+    {
+        Path destino = Paths.get(nomeArquivo);
+        String nome = nomeArquivo.toLowerCase();
+        if (nome.endsWith(EXTENSAO_BINARIA))
+            gravarBinario(vetor, destino);
+        else if (nome.endsWith(EXTENSAO_RLE))
+            gravarRle(vetor, destino);
+        else
+            gravarTexto(vetor, destino);
+    }
+
+    public static void gravarBinario(byte[] vetor, Path destino) throws IOException
+    {
+        try (FileChannel canal = abrir(destino))
+        {
+            for (int posicao = 0; posicao < vetor.length; posicao += JANELA_MAPEADA)
+            {
+                int quantidade = Math.min(JANELA_MAPEADA, vetor.length - posicao);
+                canal.map(FileChannel.MapMode.READ_WRITE, posicao, quantidade).put(vetor, posicao, quantidade);
+            }
+        }
+    }
+
+    // Cada par ocupa 5 bytes: o valor e a contagem como int big-endian. Um
+    // vetor de byte ordenado nunca passa de 256 pares.
+    public static void gravarRle(byte[] vetor, Path destino) throws IOException
+    {
+        ByteBuffer bloco = ByteBuffer.allocate(BLOCO_ESCRITA);
+        try (FileChannel canal = abrir(destino))
+        {
+            int i = 0;
+            while (i < vetor.length)
+            {
+                int j = i + 1;
+                while (j < vetor.length && vetor[j] == vetor[i])
+                    j++;
+
+                if (bloco.remaining() < 1 + Integer.BYTES)
+                    descarregar(canal, bloco);
+                bloco.put(vetor[i]);
+                bloco.putInt(j - i);
+                i = j;
+            }
+            descarregar(canal, bloco);
+        }
+    }
+
+    public static void gravarTexto(byte[] vetor, Path destino) throws IOException
+    {
+        int partes = Math.max(1, Math.min(ParallelMergeSorter.getPool().getParallelism(), vetor.length / LIMIAR_TEXTO_PARALELO));
+        int[] limites = new int[partes + 1];
+        for (int p = 0; p <= partes; p++)
+            limites[p] = (int) ((long) vetor.length * p / partes);
+
+        // O tamanho de cada trecho ja formatado e conhecido de antemao, entao
+        // cada tarefa escreve direto na sua posicao do arquivo.
+        long[] deslocamentos = new long[partes + 1];
+        for (int p = 0; p < partes; p++)
+        {
+            long tamanho = 0;
+            for (int k = limites[p]; k < limites[p + 1]; k++)
+                tamanho += TEXTO[vetor[k] - Byte.MIN_VALUE].length;
+            deslocamentos[p + 1] = deslocamentos[p] + tamanho;
+        }
+
+        try (FileChannel canal = abrir(destino))
+        {
+            List<TarefaTexto> tarefas = new ArrayList<>(partes);
+            for (int p = 0; p < partes; p++)
+                tarefas.add(new TarefaTexto(vetor, limites[p], limites[p + 1], canal, deslocamentos[p]));
+
+            ParallelMergeSorter.getPool().invoke(new RecursiveAction()
+            {
+                @Override
+                protected void compute()
+                {
+                    invokeAll(tarefas);
+                }
+            });
+
+            for (TarefaTexto tarefa : tarefas)
+            {
+                if (tarefa.falha != null)
+                    throw tarefa.falha;
+            }
+        }
+    }
+
+    private static void descarregar(FileChannel canal, ByteBuffer bloco) throws IOException
+    {
+        bloco.flip();
+        while (bloco.hasRemaining())
+            canal.write(bloco);
+        bloco.clear();
+    }
+
+    private static FileChannel abrir(Path destino) throws IOException
+    {
+        return FileChannel.open(destino, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static final class TarefaTexto extends RecursiveAction
+    {
+        private final byte[] vetor;
+        private final int inicio;
+        private final int fim;
+        private final FileChannel canal;
+        private final long deslocamento;
+        private IOException falha;
+
+        private TarefaTexto(byte[] vetor, int inicio, int fim, FileChannel canal, long deslocamento)
+        {
+            this.vetor = vetor;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.canal = canal;
+            this.deslocamento = deslocamento;
+        }
+
+        @Override
+        protected void compute()
+        {
+            ByteBuffer bloco = ByteBuffer.allocate(BLOCO_ESCRITA);
+            long posicao = this.deslocamento;
+
+            try
+            {
+                for (int k = this.inicio; k < this.fim; k++)
+                {
+                    byte[] texto = TEXTO[this.vetor[k] - Byte.MIN_VALUE];
+                    if (bloco.remaining() < texto.length)
+                        posicao = this.descarregar(bloco, posicao);
+                    bloco.put(texto);
+                }
+                this.descarregar(bloco, posicao);
+            }
+            catch (IOException erro)
+            {
+                this.falha = erro;
+            }
+        }
+
+        private long descarregar(ByteBuffer bloco, long posicao) throws IOException
+        {
+            bloco.flip();
+            while (bloco.hasRemaining())
+                posicao += this.canal.write(bloco, posicao);
+            bloco.clear();
+            return posicao;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public final class ModoExecucao
+{
+    public static final String PLATAFORMA = "plataforma";
+    public static final String VIRTUAL    = "virtual";
+
+    private ModoExecucao() {}
+
+    public static boolean virtualDisponivel()
+    {
+        return fabricaVirtual() != null;
+    }
+
+    public static ExecutorService novoExecutorConversas(String modo) throws Exception
+    {
+        if (modo == null || modo.equalsIgnoreCase(PLATAFORMA))
+            return Executors.newCachedThreadPool();
+
+        if (!modo.equalsIgnoreCase(VIRTUAL))
+            throw new Exception("Modo de execucao invalido: " + modo);
+
+        Method fabrica = fabricaVirtual();
+        if (fabrica == null)
+            throw new Exception("Threads virtuais exigem Java 21 ou superior");
+
+        return (ExecutorService) fabrica.invoke(null);
+    }
+
+    private static Method fabricaVirtual()
+    {
+        try
+        {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        }
+        catch (NoSuchMethodException erro)
+        {
+            return null;
+        }
+    }
+}
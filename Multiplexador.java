@@ -0,0 +1,129 @@
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class Multiplexador
+{
+    private final Parceiro parceiro;
+    private final String nome;
+    private final AtomicLong proximoId = new AtomicLong(1);
+    private final Map<Long, BlockingQueue<Comunicado>> pendentes = new ConcurrentHashMap<>();
+    private final Thread leitor;
+    private volatile Exception falha;
+
+    public Multiplexador(Parceiro parceiro, String nome) throws Exception
+    {
+        if (parceiro == null)
+            throw new Exception("Parceiro ausente");
+
+        this.parceiro = parceiro;
+        this.nome = nome;
+        this.leitor = new Thread(new Leitor(), "leitor-" + nome);
+        this.leitor.setDaemon(true);
+        this.leitor.start();
+    }
+
+    public Parceiro getParceiro()
+    {
+        return this.parceiro;
+    }
+
+    public long enviar(Comunicado pedido) throws Exception
+    {
+        long id = this.proximoId.getAndIncrement();
+        pedido.definirId(id);
+        this.pendentes.put(id, new LinkedBlockingQueue<Comunicado>());
+
+        try
+        {
+            this.verificarFalha();
+            this.parceiro.receba(pedido);
+        }
+        catch (Exception erro)
+        {
+            this.pendentes.remove(id);
+            throw erro;
+        }
+
+        return id;
+    }
+
+    public void enviarNoFluxo(long id, Comunicado parte) throws Exception
+    {
+        this.verificarFalha();
+        parte.definirId(id);
+        this.parceiro.receba(parte);
+    }
+
+    public boolean isAtivo()
+    {
+        return this.falha == null;
+    }
+
+    public Comunicado aguardar(long id) throws Exception
+    {
+        return this.aguardar(id, 0);
+    }
+
+    public Comunicado aguardar(long id, long prazoMs) throws Exception
+    {
+        BlockingQueue<Comunicado> fila = this.pendentes.get(id);
+        if (fila == null)
+            throw new Exception("Pedido " + id + " desconhecido em " + this.nome);
+
+        Comunicado resposta = prazoMs > 0 ? fila.poll(prazoMs, TimeUnit.MILLISECONDS) : fila.take();
+        if (resposta == null)
+            throw new TimeoutException("Pedido " + id + " sem resposta de " + this.nome + " apos " + prazoMs + " ms");
+        if (resposta instanceof FalhaDeConexao)
+            throw new Exception("Conexao com " + this.nome + " perdida", this.falha);
+
+        return resposta;
+    }
+
+    public void concluir(long id)
+    {
+        this.pendentes.remove(id);
+    }
+
+    public void encerrar() throws Exception
+    {
+        this.parceiro.receba(new ComunicadoEncerramento());
+        this.parceiro.adeus();
+    }
+
+    private void verificarFalha() throws Exception
+    {
+        if (this.falha != null)
+            throw new Exception("Conexao com " + this.nome + " perdida", this.falha);
+    }
+
+    private static final class FalhaDeConexao extends Comunicado {}
+
+    private final class Leitor implements Runnable
+    {
+        @Override
+        public void run()
+        {
+            try
+            {
+                for (;;)
+                {
+                    Comunicado comunicado = parceiro.envie();
+                    BlockingQueue<Comunicado> fila = pendentes.get(comunicado.getId());
+                    if (fila != null)
+                        fila.add(comunicado);
+                }
+            }
+            catch (Exception erro)
+            {
+                falha = erro;
+                for (BlockingQueue<Comunicado> fila : pendentes.values())
+                    fila.add(new FalhaDeConexao());
+            }
+        }
+    }
+}
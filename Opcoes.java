@@ -0,0 +1,172 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Opcoes do modo em lote no formato chave=valor. As mesmas chaves valem na
+// linha de comando, no arquivo de configuracao (config=) e em cada linha do
+// arquivo de trabalhos (lote=), e cada nivel sobrepoe o anterior.
+public final class Opcoes
+{
+    public static final String CONFIG = "config";
+    public static final String LOTE   = "lote";
+
+    private final Map<String, String> valores;
+
+    private Opcoes(Map<String, String> valores)
+    {
+        this.valores = valores;
+    }
+
+    public static boolean ehLote(String[] args)
+    {
+        for (String arg : args)
+        {
+            if (arg.indexOf('=') > 0)
+                return true;
+        }
+        return false;
+    }
+
+    public static Opcoes deArgumentos(String[] args) throws IOException
+    {
+        Opcoes linha = new Opcoes(interpretar(args, "argumentos"));
+        if (!linha.tem(CONFIG))
+            return linha;
+
+        Properties arquivo = new Properties();
+        try (Reader leitor = Files.newBufferedReader(Paths.get(linha.texto(CONFIG, null)), StandardCharsets.UTF_8))
+        {
+            arquivo.load(leitor);
+        }
+
+        Map<String, String> base = new LinkedHashMap<>();
+        for (String chave : arquivo.stringPropertyNames())
+            base.put(chave.toLowerCase(), arquivo.getProperty(chave).trim());
+        return new Opcoes(base).combinar(linha);
+    }
+
+    // Cada linha nao vazia e que nao comeca com # descreve um trabalho.
+    public List<Opcoes> trabalhos() throws IOException
+    {
+        List<Opcoes> trabalhos = new ArrayList<>();
+        if (!this.tem(LOTE))
+        {
+            trabalhos.add(this);
+            return trabalhos;
+        }
+
+        Path arquivo = Paths.get(this.texto(LOTE, null));
+        int numero = 0;
+        for (String linha : Files.readAllLines(arquivo, StandardCharsets.UTF_8))
+        {
+            numero++;
+            linha = linha.trim();
+            if (linha.isEmpty() || linha.startsWith("#"))
+                continue;
+            trabalhos.add(this.combinar(new Opcoes(interpretar(linha.split("\\s+"), arquivo + ":" + numero))));
+        }
+        return trabalhos;
+    }
+
+    public Opcoes combinar(Opcoes sobre)
+    {
+        Map<String, String> combinados = new LinkedHashMap<>(this.valores);
+        combinados.putAll(sobre.valores);
+        return new Opcoes(combinados);
+    }
+
+    public boolean tem(String chave)
+    {
+        return this.valores.containsKey(chave);
+    }
+
+    public String texto(String chave, String padrao)
+    {
+        String valor = this.valores.get(chave);
+        return valor == null || valor.isEmpty() ? padrao : valor;
+    }
+
+    public String[] lista(String chave, String padrao)
+    {
+        return this.texto(chave, padrao).split(",");
+    }
+
+    public int inteiro(String chave, int padrao)
+    {
+        String valor = this.texto(chave, null);
+        if (valor == null)
+            return padrao;
+
+        try
+        {
+            return Integer.parseInt(valor);
+        }
+        catch (NumberFormatException erro)
+        {
+            throw new IllegalArgumentException("Valor inteiro invalido para " + chave + ": " + valor);
+        }
+    }
+
+    public boolean sim(String chave, boolean padrao)
+    {
+        String valor = this.texto(chave, null);
+        if (valor == null)
+            return padrao;
+        if (valor.equalsIgnoreCase("S") || valor.equalsIgnoreCase("sim") || valor.equalsIgnoreCase("true"))
+            return true;
+        if (valor.equalsIgnoreCase("N") || valor.equalsIgnoreCase("nao") || valor.equalsIgnoreCase("false"))
+            return false;
+        throw new IllegalArgumentException("Valor S/N invalido para " + chave + ": " + valor);
+    }
+
+    // entrada=- le bytes crus da entrada padrao, entrada=*.txt le um valor
+    // por token e qualquer outro arquivo e binario; sem entrada, gera
+    // tamanho= elementos aleatorios.
+    public FonteVetor fonte() throws IOException
+    {
+        String entrada = this.texto("entrada", null);
+        if (entrada == null)
+        {
+            int tamanho = this.inteiro("tamanho", 0);
+            if (tamanho <= 0)
+                throw new IllegalArgumentException("Informe entrada= ou tamanho= positivo");
+            return FonteVetor.deMemoria(gerarVetor(tamanho));
+        }
+
+        if (entrada.equals("-"))
+            return FonteVetor.deFluxo(System.in);
+        if (entrada.toLowerCase().endsWith(".txt"))
+            return FonteVetor.deArquivoTexto(Paths.get(entrada));
+        return FonteVetor.deArquivoBinario(Paths.get(entrada));
+    }
+
+    private static byte[] gerarVetor(int tamanho)
+    {
+        byte[] vetor = new byte[tamanho];
+        for (int i = 0; i < tamanho; i++)
+            vetor[i] = (byte) ThreadLocalRandom.current().nextInt(Byte.MIN_VALUE, Byte.MAX_VALUE);
+        return vetor;
+    }
+
+    private static Map<String, String> interpretar(String[] pares, String origem)
+    {
+        Map<String, String> valores = new LinkedHashMap<>();
+        for (String par : pares)
+        {
+            int igual = par.indexOf('=');
+            if (igual <= 0)
+                throw new IllegalArgumentException("Esperado chave=valor em " + origem + ": " + par);
+            valores.put(par.substring(0, igual).trim().toLowerCase(), par.substring(igual + 1).trim());
+        }
+        return valores;
+    }
+}
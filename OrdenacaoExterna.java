@@ -0,0 +1,264 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Ordena arquivos binarios (um byte por elemento) maiores que o heap: cada
+// segmento mapeado e ordenado em memoria e gravado como uma corrida
+// temporaria, e as corridas sao intercaladas direto para o arquivo de saida.
+public final class OrdenacaoExterna
+{
+    public static final int JANELA_MAPEADA = 1 << 24;
+
+    private OrdenacaoExterna() {}
+
+    public static int segmentoPadrao()
+    {
+        long quarto = Runtime.getRuntime().maxMemory() / 4;
+        return (int) Math.max(1 << 20, Math.min(Integer.MAX_VALUE - 8, quarto));
+    }
+
+    public static void ordenar(Path entrada, Path saida, int tamanhoSegmento, Path diretorioTemporario) throws IOException
+    {
+        if (tamanhoSegmento <= 0)
+            throw new IllegalArgumentException("Tamanho de segmento invalido: " + tamanhoSegmento);
+
+        List<Path> corridas = new ArrayList<>();
+        try
+        {
+            long total;
+            try (FileChannel canal = FileChannel.open(entrada, StandardOpenOption.READ))
+            {
+                total = canal.size();
+                for (long posicao = 0; posicao < total; posicao += tamanhoSegmento)
+                {
+                    int tamanho = (int) Math.min(tamanhoSegmento, total - posicao);
+                    corridas.add(gravarCorrida(canal, posicao, tamanho, diretorioTemporario));
+                }
+            }
+
+            intercalar(corridas, saida, total);
+        }
+        finally
+        {
+            for (Path corrida : corridas)
+                Files.deleteIfExists(corrida);
+        }
+    }
+
+    private static Path gravarCorrida(FileChannel canal, long posicao, int tamanho, Path diretorioTemporario) throws IOException
+    {
+        byte[] segmento = new byte[tamanho];
+        for (int lidos = 0; lidos < tamanho; lidos += JANELA_MAPEADA)
+        {
+            int quantidade = Math.min(JANELA_MAPEADA, tamanho - lidos);
+            canal.map(FileChannel.MapMode.READ_ONLY, posicao + lidos, quantidade).get(segmento, lidos, quantidade);
+        }
+
+        ParallelMergeSorter.sortAutoInPlace(segmento, 0, segmento.length, ParallelMergeSorter.getPool().getParallelism());
+
+        Path corrida = diretorioTemporario == null ? Files.createTempFile("corrida-", ".bin")
+                                                   : Files.createTempFile(diretorioTemporario, "corrida-", ".bin");
+        try (FileChannel destino = FileChannel.open(corrida, StandardOpenOption.WRITE))
+        {
+            ByteBuffer buffer = ByteBuffer.wrap(segmento);
+            while (buffer.hasRemaining())
+                destino.write(buffer);
+        }
+        return corrida;
+    }
+
+    // Heap de minimo sobre as corridas. Ao retirar a menor, copia de uma vez
+    // todos os elementos dela que nao passam do topo seguinte: em vetores de
+    // byte isso transforma a intercalacao em copias de trechos repetidos.
+    private static void intercalar(List<Path> corridas, Path saida, long total) throws IOException
+    {
+        List<Leitor> leitores = new ArrayList<>(corridas.size());
+        try (FileChannel destino = FileChannel.open(saida, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            for (Path corrida : corridas)
+            {
+                Leitor leitor = new Leitor(FileChannel.open(corrida, StandardOpenOption.READ));
+                leitores.add(leitor);
+            }
+
+            Escritor escritor = new Escritor(destino, total);
+            Leitor[] heap = new Leitor[leitores.size()];
+            int tamanhoHeap = 0;
+            for (Leitor leitor : leitores)
+            {
+                if (leitor.temMais())
+                    tamanhoHeap = inserir(heap, tamanhoHeap, leitor);
+            }
+
+            while (tamanhoHeap > 0)
+            {
+                Leitor menor = heap[0];
+                heap[0] = heap[--tamanhoHeap];
+                descer(heap, tamanhoHeap, 0);
+
+                int limite = tamanhoHeap == 0 ? Integer.MAX_VALUE : heap[0].atual();
+                menor.copiarAte(limite, escritor);
+
+                if (menor.temMais())
+                    tamanhoHeap = inserir(heap, tamanhoHeap, menor);
+            }
+        }
+        finally
+        {
+            for (Leitor leitor : leitores)
+                leitor.fechar();
+        }
+    }
+
+    private static int inserir(Leitor[] heap, int tamanho, Leitor leitor)
+    {
+        int i = tamanho;
+        heap[i] = leitor;
+        while (i > 0)
+        {
+            int pai = (i - 1) / 2;
+            if (heap[pai].atual() <= heap[i].atual())
+                break;
+            Leitor troca = heap[pai];
+            heap[pai] = heap[i];
+            heap[i] = troca;
+            i = pai;
+        }
+        return tamanho + 1;
+    }
+
+    private static void descer(Leitor[] heap, int tamanho, int i)
+    {
+        for (;;)
+        {
+            int menor = i;
+            int esquerdo = 2 * i + 1;
+            int direito = esquerdo + 1;
+            if (esquerdo < tamanho && heap[esquerdo].atual() < heap[menor].atual())
+                menor = esquerdo;
+            if (direito < tamanho && heap[direito].atual() < heap[menor].atual())
+                menor = direito;
+            if (menor == i)
+                return;
+
+            Leitor troca = heap[menor];
+            heap[menor] = heap[i];
+            heap[i] = troca;
+            i = menor;
+        }
+    }
+
+    private static final class Leitor
+    {
+        private final FileChannel canal;
+        private final long total;
+        private long base;
+        private MappedByteBuffer janela;
+
+        Leitor(FileChannel canal) throws IOException
+        {
+            this.canal = canal;
+            this.total = canal.size();
+            this.mapear(0);
+        }
+
+        boolean temMais()
+        {
+            return this.janela.hasRemaining();
+        }
+
+        byte atual()
+        {
+            return this.janela.get(this.janela.position());
+        }
+
+        // A corrida e ordenada: em cada janela o fim do trecho que nao passa
+        // de limite sai de uma busca binaria, e o trecho vai inteiro para a
+        // saida.
+        void copiarAte(int limite, Escritor escritor) throws IOException
+        {
+            while (this.temMais() && this.atual() <= limite)
+            {
+                int fim = this.primeiroMaior(this.janela.position(), limite);
+                ByteBuffer trecho = this.janela.duplicate();
+                trecho.limit(fim);
+                escritor.escrever(trecho);
+
+                this.janela.position(fim);
+                if (!this.janela.hasRemaining() && this.base + this.janela.limit() < this.total)
+                    this.mapear(this.base + this.janela.limit());
+            }
+        }
+
+        private int primeiroMaior(int inicio, int limite)
+        {
+            int baixo = inicio;
+            int alto = this.janela.limit();
+            while (baixo < alto)
+            {
+                int meio = (baixo + alto) >>> 1;
+                if (this.janela.get(meio) <= limite)
+                    baixo = meio + 1;
+                else
+                    alto = meio;
+            }
+            return baixo;
+        }
+
+        private void mapear(long posicao) throws IOException
+        {
+            this.base = posicao;
+            this.janela = this.canal.map(FileChannel.MapMode.READ_ONLY, posicao, Math.min(JANELA_MAPEADA, this.total - posicao));
+        }
+
+        void fechar() throws IOException
+        {
+            this.canal.close();
+        }
+    }
+
+    private static final class Escritor
+    {
+        private final FileChannel canal;
+        private final long total;
+        private long base;
+        private MappedByteBuffer janela;
+
+        Escritor(FileChannel canal, long total) throws IOException
+        {
+            this.canal = canal;
+            this.total = total;
+            this.mapear(0);
+        }
+
+        void escrever(ByteBuffer trecho) throws IOException
+        {
+            while (trecho.hasRemaining())
+            {
+                if (!this.janela.hasRemaining())
+                    this.mapear(this.base + this.janela.limit());
+
+                ByteBuffer parte = trecho.duplicate();
+                parte.limit(parte.position() + Math.min(trecho.remaining(), this.janela.remaining()));
+                this.janela.put(parte);
+                trecho.position(parte.position());
+            }
+        }
+
+        private void mapear(long posicao) throws IOException
+        {
+            if (posicao >= this.total && this.total > 0)
+                throw new IOException("Saida excede o tamanho da entrada");
+
+            this.base = posicao;
+            this.janela = this.canal.map(FileChannel.MapMode.READ_WRITE, posicao, Math.min(JANELA_MAPEADA, this.total - posicao));
+        }
+    }
+}
@@ -0,0 +1,338 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.RecursiveAction;
+
+// Sample sort paralelo: separadores tirados de uma amostra sobredimensionada
+// dividem a entrada em baldes que sao ordenados de forma independente, sem
+// fase final de intercalacao. Cada separador tem tambem um balde so de
+// iguais a ele, que ja nasce ordenado; com chaves de byte, valores muito
+// repetidos viram separadores e nao estouram nenhum balde.
+final class OrdenadorAmostragem
+{
+    private static final int SOBREAMOSTRAGEM = 16;
+    private static final int FOLHAS_POR_THREAD = 4;
+    private static final int FOLHAS_MAXIMAS = 128;
+    private static final int BLOCO_MINIMO = 1 << 16;
+    private static final int REGIAO_FONTE = 1 << 22;
+    private static final long SEMENTE = 0x5DEECE66DL;
+
+    // Fica acima de qualquer byte, entao nunca e igual a um elemento.
+    private static final int SENTINELA = Byte.MAX_VALUE + 1;
+
+    private final int niveis;
+    private final int folhas;
+    private final int[] arvore;
+    private final int[] separadores;
+
+    private OrdenadorAmostragem(int[] ordenados)
+    {
+        this.folhas = ordenados.length + 1;
+        this.niveis = Integer.numberOfTrailingZeros(this.folhas);
+        this.arvore = new int[this.folhas];
+        this.separadores = Arrays.copyOf(ordenados, this.folhas);
+        this.separadores[this.folhas - 1] = SENTINELA;
+        this.montar(ordenados, 1, 0, ordenados.length);
+    }
+
+    static void ordenar(byte[] entrada, byte[] destino, int threads)
+    {
+        int folhas = Math.max(1, threads) * FOLHAS_POR_THREAD;
+        byte[] oraculo = new byte[entrada.length];
+        int[] limites = particionar(entrada, destino, oraculo, folhas, threads);
+
+        // Baldes de iguais (indices impares) ja estao prontos; o oraculo,
+        // que nao e mais usado, serve de auxiliar para os demais.
+        List<TarefaBalde> ordenacoes = new ArrayList<>();
+        for (int balde = 0; balde < limites.length - 1; balde += 2)
+        {
+            if (limites[balde + 1] - limites[balde] > 1)
+                ordenacoes.add(new TarefaBalde(destino, oraculo, limites[balde], limites[balde + 1]));
+        }
+        executar(ordenacoes);
+    }
+
+    private static int[] particionar(byte[] entrada, byte[] destino, byte[] oraculo, int folhas, int threads)
+    {
+        int n = entrada.length;
+        folhas = ajustarFolhas(folhas);
+        int[] amostra = new int[SOBREAMOSTRAGEM * folhas - 1];
+        Random aleatorio = new Random(SEMENTE ^ n);
+        for (int i = 0; i < amostra.length; i++)
+            amostra[i] = entrada[aleatorio.nextInt(n)];
+        OrdenadorAmostragem classificador = new OrdenadorAmostragem(escolherSeparadores(amostra, folhas));
+        int baldes = 2 * classificador.folhas;
+
+        int blocos = Math.max(1, Math.min(Math.max(1, threads), n / BLOCO_MINIMO));
+        List<TarefaClassificacao> classificacoes = new ArrayList<>(blocos);
+        for (int b = 0; b < blocos; b++)
+            classificacoes.add(new TarefaClassificacao(classificador, entrada, oraculo, destino,
+                                                       (int) ((long) n * b / blocos), (int) ((long) n * (b + 1) / blocos), baldes));
+        executar(classificacoes);
+
+        // Posicao de cada bloco dentro de cada balde: balde a balde, na ordem
+        // dos blocos, para manter a distribuicao estavel.
+        int[] limites = new int[baldes + 1];
+        int posicao = 0;
+        for (int balde = 0; balde < baldes; balde++)
+        {
+            limites[balde] = posicao;
+            for (TarefaClassificacao bloco : classificacoes)
+            {
+                int quantidade = bloco.contagens[balde];
+                bloco.contagens[balde] = posicao;
+                posicao += quantidade;
+            }
+        }
+        limites[baldes] = posicao;
+
+        for (TarefaClassificacao bloco : classificacoes)
+        {
+            bloco.reinitialize();
+            bloco.espalhar = true;
+        }
+        executar(classificacoes);
+        return limites;
+    }
+
+    // Distribui a fonte em destino por faixas de valores, sem ordenar
+    // nenhuma delas. O balde b ocupa [limites[b], limites[b + 1]); os de
+    // indice impar so tem elementos iguais e ja estao ordenados. A fonte e
+    // lida por regioes, uma vez para contar e outra para espalhar, entao
+    // alem de destino so ficam em memoria as regioes sendo classificadas.
+    static int[] particionar(FonteVetor fonte, byte[] destino, int folhas) throws IOException
+    {
+        int n = fonte.tamanho();
+        folhas = ajustarFolhas(folhas);
+        int[] amostra = new int[SOBREAMOSTRAGEM * folhas - 1];
+        Random aleatorio = new Random(SEMENTE ^ n);
+        for (int i = 0; i < amostra.length; i++)
+            amostra[i] = fonte.ler(aleatorio.nextInt(n), 1)[0];
+        OrdenadorAmostragem classificador = new OrdenadorAmostragem(escolherSeparadores(amostra, folhas));
+        int baldes = 2 * classificador.folhas;
+
+        int regioes = (int) (((long) n + REGIAO_FONTE - 1) / REGIAO_FONTE);
+        List<TarefaRegiao> leituras = new ArrayList<>(regioes);
+        for (int r = 0; r < regioes; r++)
+            leituras.add(new TarefaRegiao(classificador, fonte, destino, r * REGIAO_FONTE, (int) Math.min(n, (long) (r + 1) * REGIAO_FONTE), baldes));
+        executarLeituras(leituras);
+
+        int[] limites = new int[baldes + 1];
+        int posicao = 0;
+        for (int balde = 0; balde < baldes; balde++)
+        {
+            limites[balde] = posicao;
+            for (TarefaRegiao regiao : leituras)
+            {
+                int quantidade = regiao.contagens[balde];
+                regiao.contagens[balde] = posicao;
+                posicao += quantidade;
+            }
+        }
+        limites[baldes] = posicao;
+
+        for (TarefaRegiao regiao : leituras)
+        {
+            regiao.reinitialize();
+            regiao.espalhar = true;
+        }
+        executarLeituras(leituras);
+        return limites;
+    }
+
+    private static int ajustarFolhas(int folhas)
+    {
+        return Math.max(2, Math.min(FOLHAS_MAXIMAS, Integer.highestOneBit(Math.max(1, folhas))));
+    }
+
+    // Separadores a cada SOBREAMOSTRAGEM posicoes de uma amostra ordenada,
+    // sem repeticao; faltando valores distintos, o ultimo e repetido, o que
+    // so deixa baldes vazios.
+    private static int[] escolherSeparadores(int[] amostra, int folhas)
+    {
+        Arrays.sort(amostra);
+
+        int[] separadores = new int[folhas - 1];
+        int distintos = 0;
+        for (int i = SOBREAMOSTRAGEM - 1; i < amostra.length && distintos < separadores.length; i += SOBREAMOSTRAGEM)
+        {
+            if (distintos == 0 || amostra[i] != separadores[distintos - 1])
+                separadores[distintos++] = amostra[i];
+        }
+        for (int i = distintos; i < separadores.length; i++)
+            separadores[i] = separadores[distintos - 1];
+        return separadores;
+    }
+
+    // Arvore de busca implicita: a raiz em 1 e os filhos de i em 2i e 2i + 1.
+    private void montar(int[] ordenados, int no, int inicio, int fim)
+    {
+        if (no >= this.folhas)
+            return;
+        int meio = (inicio + fim) >>> 1;
+        this.arvore[no] = ordenados[meio];
+        this.montar(ordenados, 2 * no, inicio, meio);
+        this.montar(ordenados, 2 * no + 1, meio + 1, fim);
+    }
+
+    // Sem desvios: cada nivel desce pelo bit de sinal da comparacao. O
+    // resultado i conta os separadores menores que o valor; o balde 2i
+    // recebe os que ficam estritamente entre separadores e o 2i + 1 os
+    // iguais ao separador i.
+    private int classificar(int valor)
+    {
+        int no = 1;
+        for (int nivel = 0; nivel < this.niveis; nivel++)
+            no = 2 * no + ((this.arvore[no] - valor) >>> 31);
+
+        int i = no - this.folhas;
+        int diferenca = valor - this.separadores[i];
+        int igual = 1 - ((diferenca | -diferenca) >>> 31);
+        return 2 * i + igual;
+    }
+
+    private static void executar(List<? extends RecursiveAction> tarefas)
+    {
+        if (tarefas.size() == 1)
+        {
+            tarefas.get(0).invoke();
+            return;
+        }
+
+        ParallelMergeSorter.getPool().invoke(new RecursiveAction()
+        {
+            @Override
+            protected void compute()
+            {
+                invokeAll(tarefas);
+            }
+        });
+    }
+
+    private static void executarLeituras(List<TarefaRegiao> tarefas) throws IOException
+    {
+        executar(tarefas);
+        for (TarefaRegiao tarefa : tarefas)
+        {
+            if (tarefa.falha != null)
+                throw tarefa.falha;
+        }
+    }
+
+    // Na primeira execucao conta os baldes do bloco e anota cada balde no
+    // oraculo; na segunda copia cada elemento para a posicao do seu balde.
+    private static final class TarefaClassificacao extends RecursiveAction
+    {
+        private final OrdenadorAmostragem classificador;
+        private final byte[] entrada;
+        private final byte[] oraculo;
+        private final byte[] destino;
+        private final int inicio;
+        private final int fim;
+        private final int[] contagens;
+        private boolean espalhar;
+
+        private TarefaClassificacao(OrdenadorAmostragem classificador, byte[] entrada, byte[] oraculo, byte[] destino,
+                                    int inicio, int fim, int baldes)
+        {
+            this.classificador = classificador;
+            this.entrada = entrada;
+            this.oraculo = oraculo;
+            this.destino = destino;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.contagens = new int[baldes];
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (this.espalhar)
+            {
+                for (int i = this.inicio; i < this.fim; i++)
+                    this.destino[this.contagens[this.oraculo[i] & 0xFF]++] = this.entrada[i];
+                return;
+            }
+
+            for (int i = this.inicio; i < this.fim; i++)
+            {
+                int balde = this.classificador.classificar(this.entrada[i]);
+                this.oraculo[i] = (byte) balde;
+                this.contagens[balde]++;
+            }
+        }
+    }
+
+    // Como TarefaClassificacao, mas le a propria regiao da fonte em cada
+    // execucao e classifica de novo na segunda, em vez de guardar um oraculo.
+    private static final class TarefaRegiao extends RecursiveAction
+    {
+        private final OrdenadorAmostragem classificador;
+        private final FonteVetor fonte;
+        private final byte[] destino;
+        private final int inicio;
+        private final int fim;
+        private final int[] contagens;
+        private boolean espalhar;
+        private IOException falha;
+
+        private TarefaRegiao(OrdenadorAmostragem classificador, FonteVetor fonte, byte[] destino, int inicio, int fim, int baldes)
+        {
+            this.classificador = classificador;
+            this.fonte = fonte;
+            this.destino = destino;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.contagens = new int[baldes];
+        }
+
+        @Override
+        protected void compute()
+        {
+            byte[] regiao;
+            try
+            {
+                regiao = this.fonte.ler(this.inicio, this.fim - this.inicio);
+            }
+            catch (IOException erro)
+            {
+                this.falha = erro;
+                return;
+            }
+
+            if (this.espalhar)
+            {
+                for (byte valor : regiao)
+                    this.destino[this.contagens[this.classificador.classificar(valor)]++] = valor;
+                return;
+            }
+
+            for (byte valor : regiao)
+                this.contagens[this.classificador.classificar(valor)]++;
+        }
+    }
+
+    private static final class TarefaBalde extends RecursiveAction
+    {
+        private final byte[] vetor;
+        private final byte[] auxiliar;
+        private final int inicio;
+        private final int fim;
+
+        private TarefaBalde(byte[] vetor, byte[] auxiliar, int inicio, int fim)
+        {
+            this.vetor = vetor;
+            this.auxiliar = auxiliar;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected void compute()
+        {
+            ParallelMergeSorter.mergeSort(this.vetor, this.auxiliar, 0, this.inicio, this.fim, false);
+        }
+    }
+}
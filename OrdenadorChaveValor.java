@@ -0,0 +1,375 @@
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+// Ordenacao estavel de chaves long levando junto um vetor paralelo de int
+// (indices ou carga util). Empates preservam a ordem original porque tanto o
+// merge quanto o co-rank dao preferencia ao lado esquerdo.
+public final class OrdenadorChaveValor
+{
+    private static final int LIMIAR_ORDENACAO_FJ = 8_192;
+    private static final int LIMIAR_MERGE_FJ     = 32_768;
+    private static final int LIMIAR_INSERCAO     = 24;
+    private static final int LIMIAR_COPIA_FJ     = 1 << 16;
+
+    private OrdenadorChaveValor() {}
+
+    public static int[] argsort(long[] chaves)
+    {
+        if (chaves == null)
+            throw new IllegalArgumentException("Chaves ausentes");
+
+        long[] copia = chaves.clone();
+        int[] permutacao = identidade(copia.length);
+        ordenarPares(copia, permutacao);
+        return permutacao;
+    }
+
+    public static int[] argsort(byte[] chaves)
+    {
+        if (chaves == null)
+            throw new IllegalArgumentException("Chaves ausentes");
+
+        long[] largas = new long[chaves.length];
+        for (int i = 0; i < chaves.length; i++)
+            largas[i] = chaves[i];
+
+        int[] permutacao = identidade(largas.length);
+        ordenarPares(largas, permutacao);
+        return permutacao;
+    }
+
+    public static void sort(long[] chaves, int[] valores)
+    {
+        if (chaves == null || valores == null)
+            throw new IllegalArgumentException("Chaves ou valores ausentes");
+
+        if (chaves.length != valores.length)
+            throw new IllegalArgumentException("Chaves e valores com tamanhos diferentes: " + chaves.length + " e " + valores.length);
+
+        ordenarPares(chaves, valores);
+    }
+
+    public static void sort(long[] chaves, byte[] registros, int largura)
+    {
+        if (chaves == null || registros == null)
+            throw new IllegalArgumentException("Chaves ou registros ausentes");
+
+        if (largura <= 0 || (long) chaves.length * largura != registros.length)
+            throw new IllegalArgumentException("Registros de largura " + largura + " nao correspondem a " + chaves.length + " chaves");
+
+        int[] permutacao = identidade(chaves.length);
+        ordenarPares(chaves, permutacao);
+
+        byte[] reordenados = new byte[registros.length];
+        ParallelMergeSorter.getPool().invoke(new TarefaPermutacao(permutacao, registros, reordenados, largura, 0, permutacao.length));
+        System.arraycopy(reordenados, 0, registros, 0, registros.length);
+    }
+
+    // Partes anteriores vencem os empates, de modo que concatenar fatias
+    // ordenadas de forma estavel e intercala-las mantem a estabilidade global.
+    public static void mergeAll(List<long[]> chaves, List<int[]> valores, long[] chavesDestino, int[] valoresDestino)
+    {
+        if (chaves == null || valores == null || chaves.size() != valores.size())
+            throw new IllegalArgumentException("Listas de chaves e valores incompativeis");
+
+        int[] limites = new int[chaves.size() + 1];
+        for (int i = 0; i < chaves.size(); i++)
+        {
+            if (chaves.get(i).length != valores.get(i).length)
+                throw new IllegalArgumentException("Parte " + i + " com chaves e valores de tamanhos diferentes");
+            limites[i + 1] = limites[i] + chaves.get(i).length;
+        }
+
+        int total = limites[limites.length - 1];
+        if (chavesDestino.length != total || valoresDestino.length != total)
+            throw new IllegalArgumentException("Destino deve ter " + total + " posicoes");
+
+        for (int i = 0; i < chaves.size(); i++)
+        {
+            System.arraycopy(chaves.get(i), 0, chavesDestino, limites[i], limites[i + 1] - limites[i]);
+            System.arraycopy(valores.get(i), 0, valoresDestino, limites[i], limites[i + 1] - limites[i]);
+        }
+
+        if (chaves.size() > 1)
+            ParallelMergeSorter.getPool().invoke(new TarefaMergePartes(chavesDestino, valoresDestino, new long[total], new int[total],
+                                                                      limites, 0, chaves.size(), false));
+    }
+
+    static int[] identidade(int tamanho)
+    {
+        int[] indices = new int[tamanho];
+        for (int i = 0; i < tamanho; i++)
+            indices[i] = i;
+        return indices;
+    }
+
+    private static void ordenarPares(long[] chaves, int[] valores)
+    {
+        if (chaves.length < 2)
+            return;
+
+        ParallelMergeSorter.getPool().invoke(new TarefaOrdenacao(chaves, valores, new long[chaves.length], new int[chaves.length],
+                                                                 0, chaves.length, false));
+    }
+
+    // Buffers alternados sem copia de volta, como no ParallelMergeSorter; a
+    // insercao so desloca chaves estritamente maiores, entao tambem e estavel.
+    private static void mergeSort(long[] chaves, int[] valores, long[] bufferChaves, int[] bufferValores,
+                                  int inicio, int fim, boolean noAuxiliar)
+    {
+        int tamanho = fim - inicio;
+        if (tamanho <= LIMIAR_INSERCAO)
+        {
+            insercao(chaves, valores, inicio, fim);
+            if (noAuxiliar)
+            {
+                System.arraycopy(chaves, inicio, bufferChaves, inicio, tamanho);
+                System.arraycopy(valores, inicio, bufferValores, inicio, tamanho);
+            }
+            return;
+        }
+
+        int meio = (inicio + fim) >>> 1;
+        mergeSort(chaves, valores, bufferChaves, bufferValores, inicio, meio, !noAuxiliar);
+        mergeSort(chaves, valores, bufferChaves, bufferValores, meio, fim, !noAuxiliar);
+
+        if (noAuxiliar)
+            intercalarFaixas(chaves, valores, inicio, meio, chaves, valores, meio, fim, bufferChaves, bufferValores, inicio);
+        else
+            intercalarFaixas(bufferChaves, bufferValores, inicio, meio, bufferChaves, bufferValores, meio, fim, chaves, valores, inicio);
+    }
+
+    private static void insercao(long[] chaves, int[] valores, int inicio, int fim)
+    {
+        for (int i = inicio + 1; i < fim; i++)
+        {
+            long chave = chaves[i];
+            int valor = valores[i];
+            int j = i - 1;
+            while (j >= inicio && chaves[j] > chave)
+            {
+                chaves[j + 1] = chaves[j];
+                valores[j + 1] = valores[j];
+                j--;
+            }
+            chaves[j + 1] = chave;
+            valores[j + 1] = valor;
+        }
+    }
+
+    private static void intercalarFaixas(long[] chavesEsquerda, int[] valoresEsquerda, int inicioEsquerdo, int fimEsquerdo,
+                                         long[] chavesDireita, int[] valoresDireita, int inicioDireito, int fimDireito,
+                                         long[] chavesDestino, int[] valoresDestino, int inicioDestino)
+    {
+        int i = inicioEsquerdo;
+        int j = inicioDireito;
+        int k = inicioDestino;
+
+        while (i < fimEsquerdo && j < fimDireito)
+        {
+            if (chavesEsquerda[i] <= chavesDireita[j])
+            {
+                chavesDestino[k] = chavesEsquerda[i];
+                valoresDestino[k++] = valoresEsquerda[i++];
+            }
+            else
+            {
+                chavesDestino[k] = chavesDireita[j];
+                valoresDestino[k++] = valoresDireita[j++];
+            }
+        }
+
+        System.arraycopy(chavesEsquerda, i, chavesDestino, k, fimEsquerdo - i);
+        System.arraycopy(valoresEsquerda, i, valoresDestino, k, fimEsquerdo - i);
+        k += fimEsquerdo - i;
+        System.arraycopy(chavesDireita, j, chavesDestino, k, fimDireito - j);
+        System.arraycopy(valoresDireita, j, valoresDestino, k, fimDireito - j);
+    }
+
+    private static final class TarefaOrdenacao extends RecursiveAction
+    {
+        private final long[] chaves;
+        private final int[] valores;
+        private final long[] chavesAuxiliares;
+        private final int[] valoresAuxiliares;
+        private final int inicio;
+        private final int fim;
+        private final boolean destinoNoAuxiliar;
+
+        private TarefaOrdenacao(long[] chaves, int[] valores, long[] chavesAuxiliares, int[] valoresAuxiliares,
+                                int inicio, int fim, boolean destinoNoAuxiliar)
+        {
+            this.chaves = chaves;
+            this.valores = valores;
+            this.chavesAuxiliares = chavesAuxiliares;
+            this.valoresAuxiliares = valoresAuxiliares;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.destinoNoAuxiliar = destinoNoAuxiliar;
+        }
+
+        @Override
+        protected void compute()
+        {
+            int tamanho = this.fim - this.inicio;
+            if (tamanho <= LIMIAR_ORDENACAO_FJ)
+            {
+                mergeSort(this.chaves, this.valores, this.chavesAuxiliares, this.valoresAuxiliares,
+                          this.inicio, this.fim, this.destinoNoAuxiliar);
+                return;
+            }
+
+            int meio = this.inicio + tamanho / 2;
+            invokeAll(new TarefaOrdenacao(this.chaves, this.valores, this.chavesAuxiliares, this.valoresAuxiliares, this.inicio, meio, !this.destinoNoAuxiliar),
+                      new TarefaOrdenacao(this.chaves, this.valores, this.chavesAuxiliares, this.valoresAuxiliares, meio, this.fim, !this.destinoNoAuxiliar));
+
+            long[] chavesFonte = this.destinoNoAuxiliar ? this.chaves : this.chavesAuxiliares;
+            int[] valoresFonte = this.destinoNoAuxiliar ? this.valores : this.valoresAuxiliares;
+            long[] chavesDestino = this.destinoNoAuxiliar ? this.chavesAuxiliares : this.chaves;
+            int[] valoresDestino = this.destinoNoAuxiliar ? this.valoresAuxiliares : this.valores;
+            new TarefaMerge(chavesFonte, valoresFonte, this.inicio, meio, meio, this.fim, chavesDestino, valoresDestino, this.inicio).compute();
+        }
+    }
+
+    private static final class TarefaMergePartes extends RecursiveAction
+    {
+        private final long[] chaves;
+        private final int[] valores;
+        private final long[] chavesAuxiliares;
+        private final int[] valoresAuxiliares;
+        private final int[] limites;
+        private final int primeira;
+        private final int ultima;
+        private final boolean destinoNoAuxiliar;
+
+        private TarefaMergePartes(long[] chaves, int[] valores, long[] chavesAuxiliares, int[] valoresAuxiliares,
+                                  int[] limites, int primeira, int ultima, boolean destinoNoAuxiliar)
+        {
+            this.chaves = chaves;
+            this.valores = valores;
+            this.chavesAuxiliares = chavesAuxiliares;
+            this.valoresAuxiliares = valoresAuxiliares;
+            this.limites = limites;
+            this.primeira = primeira;
+            this.ultima = ultima;
+            this.destinoNoAuxiliar = destinoNoAuxiliar;
+        }
+
+        @Override
+        protected void compute()
+        {
+            int inicio = this.limites[this.primeira];
+            int fim = this.limites[this.ultima];
+
+            if (this.ultima - this.primeira == 1)
+            {
+                if (this.destinoNoAuxiliar)
+                {
+                    System.arraycopy(this.chaves, inicio, this.chavesAuxiliares, inicio, fim - inicio);
+                    System.arraycopy(this.valores, inicio, this.valoresAuxiliares, inicio, fim - inicio);
+                }
+                return;
+            }
+
+            int parteDoMeio = (this.primeira + this.ultima) >>> 1;
+            int meio = this.limites[parteDoMeio];
+            invokeAll(new TarefaMergePartes(this.chaves, this.valores, this.chavesAuxiliares, this.valoresAuxiliares,
+                                            this.limites, this.primeira, parteDoMeio, !this.destinoNoAuxiliar),
+                      new TarefaMergePartes(this.chaves, this.valores, this.chavesAuxiliares, this.valoresAuxiliares,
+                                            this.limites, parteDoMeio, this.ultima, !this.destinoNoAuxiliar));
+
+            long[] chavesFonte = this.destinoNoAuxiliar ? this.chaves : this.chavesAuxiliares;
+            int[] valoresFonte = this.destinoNoAuxiliar ? this.valores : this.valoresAuxiliares;
+            long[] chavesDestino = this.destinoNoAuxiliar ? this.chavesAuxiliares : this.chaves;
+            int[] valoresDestino = this.destinoNoAuxiliar ? this.valoresAuxiliares : this.valores;
+            new TarefaMerge(chavesFonte, valoresFonte, inicio, meio, meio, fim, chavesDestino, valoresDestino, inicio).compute();
+        }
+    }
+
+    private static final class TarefaMerge extends RecursiveAction
+    {
+        private final long[] chaves;
+        private final int[] valores;
+        private final int inicioEsquerdo;
+        private final int fimEsquerdo;
+        private final int inicioDireito;
+        private final int fimDireito;
+        private final long[] chavesDestino;
+        private final int[] valoresDestino;
+        private final int inicioDestino;
+
+        private TarefaMerge(long[] chaves, int[] valores, int inicioEsquerdo, int fimEsquerdo, int inicioDireito, int fimDireito,
+                            long[] chavesDestino, int[] valoresDestino, int inicioDestino)
+        {
+            this.chaves = chaves;
+            this.valores = valores;
+            this.inicioEsquerdo = inicioEsquerdo;
+            this.fimEsquerdo = fimEsquerdo;
+            this.inicioDireito = inicioDireito;
+            this.fimDireito = fimDireito;
+            this.chavesDestino = chavesDestino;
+            this.valoresDestino = valoresDestino;
+            this.inicioDestino = inicioDestino;
+        }
+
+        @Override
+        protected void compute()
+        {
+            int total = (this.fimEsquerdo - this.inicioEsquerdo) + (this.fimDireito - this.inicioDireito);
+            if (total <= LIMIAR_MERGE_FJ)
+            {
+                intercalarFaixas(this.chaves, this.valores, this.inicioEsquerdo, this.fimEsquerdo,
+                                 this.chaves, this.valores, this.inicioDireito, this.fimDireito,
+                                 this.chavesDestino, this.valoresDestino, this.inicioDestino);
+                return;
+            }
+
+            int k = total / 2;
+            int i = OrdenadorLong.coRank(k, this.chaves, this.inicioEsquerdo, this.fimEsquerdo,
+                                         this.chaves, this.inicioDireito, this.fimDireito);
+            int j = k - i;
+
+            invokeAll(new TarefaMerge(this.chaves, this.valores, this.inicioEsquerdo, this.inicioEsquerdo + i,
+                                      this.inicioDireito, this.inicioDireito + j,
+                                      this.chavesDestino, this.valoresDestino, this.inicioDestino),
+                      new TarefaMerge(this.chaves, this.valores, this.inicioEsquerdo + i, this.fimEsquerdo,
+                                      this.inicioDireito + j, this.fimDireito,
+                                      this.chavesDestino, this.valoresDestino, this.inicioDestino + k));
+        }
+    }
+
+    private static final class TarefaPermutacao extends RecursiveAction
+    {
+        private final int[] permutacao;
+        private final byte[] origem;
+        private final byte[] destino;
+        private final int largura;
+        private final int inicio;
+        private final int fim;
+
+        private TarefaPermutacao(int[] permutacao, byte[] origem, byte[] destino, int largura, int inicio, int fim)
+        {
+            this.permutacao = permutacao;
+            this.origem = origem;
+            this.destino = destino;
+            this.largura = largura;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if ((long) (this.fim - this.inicio) * this.largura > LIMIAR_COPIA_FJ && this.fim - this.inicio > 1)
+            {
+                int meio = (this.inicio + this.fim) >>> 1;
+                invokeAll(new TarefaPermutacao(this.permutacao, this.origem, this.destino, this.largura, this.inicio, meio),
+                          new TarefaPermutacao(this.permutacao, this.origem, this.destino, this.largura, meio, this.fim));
+                return;
+            }
+
+            for (int i = this.inicio; i < this.fim; i++)
+                System.arraycopy(this.origem, this.permutacao[i] * this.largura, this.destino, i * this.largura, this.largura);
+        }
+    }
+}
@@ -0,0 +1,495 @@
+// Ordenacao adaptativa no estilo do TimSort para vetores de byte: aproveita
+// as corridas naturais da entrada (as descendentes sao invertidas), estende
+// corridas curtas com insercao binaria e intercala com galopes, de modo que
+// entradas quase ordenadas custam perto de uma passada linear.
+final class OrdenadorCorridas
+{
+    private static final int CORRIDA_MINIMA = 32;
+    private static final int GALOPE_MINIMO  = 7;
+    private static final int PILHA_MAXIMA   = 49;
+
+    private final byte[] a;
+    private final int[] bases = new int[PILHA_MAXIMA];
+    private final int[] tamanhos = new int[PILHA_MAXIMA];
+    private int corridas;
+    private int galope = GALOPE_MINIMO;
+    private byte[] temporario = new byte[0];
+
+    private OrdenadorCorridas(byte[] a)
+    {
+        this.a = a;
+    }
+
+    static void ordenar(byte[] a, int inicio, int fim)
+    {
+        int restante = fim - inicio;
+        if (restante < 2)
+            return;
+
+        if (restante < CORRIDA_MINIMA)
+        {
+            insercaoBinaria(a, inicio, fim, inicio + contarCorrida(a, inicio, fim));
+            return;
+        }
+
+        OrdenadorCorridas pilha = new OrdenadorCorridas(a);
+        int minimo = corridaMinima(restante);
+        int i = inicio;
+        while (restante > 0)
+        {
+            int tamanho = contarCorrida(a, i, fim);
+            if (tamanho < minimo)
+            {
+                int forcado = Math.min(minimo, restante);
+                insercaoBinaria(a, i, i + forcado, i + tamanho);
+                tamanho = forcado;
+            }
+
+            pilha.empilhar(i, tamanho);
+            pilha.colapsar();
+            i += tamanho;
+            restante -= tamanho;
+        }
+        pilha.colapsarTudo();
+    }
+
+    private static int corridaMinima(int n)
+    {
+        int resto = 0;
+        while (n >= CORRIDA_MINIMA)
+        {
+            resto |= n & 1;
+            n >>= 1;
+        }
+        return n + resto;
+    }
+
+    // Descendentes estritas sao invertidas; com o "estrito" a ordem dos
+    // iguais nao muda.
+    private static int contarCorrida(byte[] a, int inicio, int fim)
+    {
+        int i = inicio + 1;
+        if (i == fim)
+            return 1;
+
+        if (a[i++] < a[inicio])
+        {
+            while (i < fim && a[i] < a[i - 1])
+                i++;
+            for (int e = inicio, d = i - 1; e < d; e++, d--)
+            {
+                byte troca = a[e];
+                a[e] = a[d];
+                a[d] = troca;
+            }
+        }
+        else
+        {
+            while (i < fim && a[i] >= a[i - 1])
+                i++;
+        }
+        return i - inicio;
+    }
+
+    // [inicio, ordenado) ja esta em ordem; cada elemento seguinte entra
+    // depois do ultimo igual a ele.
+    private static void insercaoBinaria(byte[] a, int inicio, int fim, int ordenado)
+    {
+        for (int i = ordenado; i < fim; i++)
+        {
+            byte pivo = a[i];
+            int esquerda = inicio;
+            int direita = i;
+            while (esquerda < direita)
+            {
+                int meio = (esquerda + direita) >>> 1;
+                if (pivo < a[meio])
+                    direita = meio;
+                else
+                    esquerda = meio + 1;
+            }
+            System.arraycopy(a, esquerda, a, esquerda + 1, i - esquerda);
+            a[esquerda] = pivo;
+        }
+    }
+
+    private void empilhar(int base, int tamanho)
+    {
+        this.bases[this.corridas] = base;
+        this.tamanhos[this.corridas] = tamanho;
+        this.corridas++;
+    }
+
+    // Mantem tamanhos[i - 2] > tamanhos[i - 1] + tamanhos[i] e
+    // tamanhos[i - 1] > tamanhos[i] no topo da pilha.
+    private void colapsar()
+    {
+        while (this.corridas > 1)
+        {
+            int n = this.corridas - 2;
+            if (n > 0 && this.tamanhos[n - 1] <= this.tamanhos[n] + this.tamanhos[n + 1]
+                || n > 1 && this.tamanhos[n - 2] <= this.tamanhos[n] + this.tamanhos[n - 1])
+            {
+                if (this.tamanhos[n - 1] < this.tamanhos[n + 1])
+                    n--;
+            }
+            else if (this.tamanhos[n] > this.tamanhos[n + 1])
+                break;
+
+            this.intercalarEm(n);
+        }
+    }
+
+    private void colapsarTudo()
+    {
+        while (this.corridas > 1)
+        {
+            int n = this.corridas - 2;
+            if (n > 0 && this.tamanhos[n - 1] < this.tamanhos[n + 1])
+                n--;
+            this.intercalarEm(n);
+        }
+    }
+
+    private void intercalarEm(int i)
+    {
+        int base1 = this.bases[i];
+        int tamanho1 = this.tamanhos[i];
+        int base2 = this.bases[i + 1];
+        int tamanho2 = this.tamanhos[i + 1];
+
+        this.tamanhos[i] = tamanho1 + tamanho2;
+        if (i == this.corridas - 3)
+        {
+            this.bases[i + 1] = this.bases[i + 2];
+            this.tamanhos[i + 1] = this.tamanhos[i + 2];
+        }
+        this.corridas--;
+
+        // O que ja esta no lugar nas pontas nao participa; corridas que ja
+        // se encadeiam terminam aqui sem mover nada.
+        int k = galoparDireita(this.a[base2], this.a, base1, tamanho1, 0);
+        base1 += k;
+        tamanho1 -= k;
+        if (tamanho1 == 0)
+            return;
+
+        tamanho2 = galoparEsquerda(this.a[base1 + tamanho1 - 1], this.a, base2, tamanho2, tamanho2 - 1);
+        if (tamanho2 == 0)
+            return;
+
+        if (tamanho1 <= tamanho2)
+            this.intercalarBaixo(base1, tamanho1, base2, tamanho2);
+        else
+            this.intercalarAlto(base1, tamanho1, base2, tamanho2);
+    }
+
+    // Posicao do primeiro elemento >= chave em a[base, base + tamanho),
+    // buscando em saltos exponenciais a partir de dica.
+    private static int galoparEsquerda(byte chave, byte[] a, int base, int tamanho, int dica)
+    {
+        int anterior = 0;
+        int salto = 1;
+        if (chave > a[base + dica])
+        {
+            int maximo = tamanho - dica;
+            while (salto < maximo && chave > a[base + dica + salto])
+            {
+                anterior = salto;
+                salto = (salto << 1) + 1;
+                if (salto <= 0)
+                    salto = maximo;
+            }
+            if (salto > maximo)
+                salto = maximo;
+            anterior += dica;
+            salto += dica;
+        }
+        else
+        {
+            int maximo = dica + 1;
+            while (salto < maximo && chave <= a[base + dica - salto])
+            {
+                anterior = salto;
+                salto = (salto << 1) + 1;
+                if (salto <= 0)
+                    salto = maximo;
+            }
+            if (salto > maximo)
+                salto = maximo;
+            int troca = anterior;
+            anterior = dica - salto;
+            salto = dica - troca;
+        }
+
+        anterior++;
+        while (anterior < salto)
+        {
+            int meio = anterior + ((salto - anterior) >>> 1);
+            if (chave > a[base + meio])
+                anterior = meio + 1;
+            else
+                salto = meio;
+        }
+        return salto;
+    }
+
+    // Posicao do primeiro elemento > chave em a[base, base + tamanho).
+    private static int galoparDireita(byte chave, byte[] a, int base, int tamanho, int dica)
+    {
+        int anterior = 0;
+        int salto = 1;
+        if (chave < a[base + dica])
+        {
+            int maximo = dica + 1;
+            while (salto < maximo && chave < a[base + dica - salto])
+            {
+                anterior = salto;
+                salto = (salto << 1) + 1;
+                if (salto <= 0)
+                    salto = maximo;
+            }
+            if (salto > maximo)
+                salto = maximo;
+            int troca = anterior;
+            anterior = dica - salto;
+            salto = dica - troca;
+        }
+        else
+        {
+            int maximo = tamanho - dica;
+            while (salto < maximo && chave >= a[base + dica + salto])
+            {
+                anterior = salto;
+                salto = (salto << 1) + 1;
+                if (salto <= 0)
+                    salto = maximo;
+            }
+            if (salto > maximo)
+                salto = maximo;
+            anterior += dica;
+            salto += dica;
+        }
+
+        anterior++;
+        while (anterior < salto)
+        {
+            int meio = anterior + ((salto - anterior) >>> 1);
+            if (chave < a[base + meio])
+                salto = meio;
+            else
+                anterior = meio + 1;
+        }
+        return salto;
+    }
+
+    private byte[] temporario(int tamanho)
+    {
+        if (this.temporario.length < tamanho)
+            this.temporario = new byte[Math.max(tamanho, Math.min(this.a.length >>> 1, this.temporario.length * 2))];
+        return this.temporario;
+    }
+
+    // A corrida da esquerda (a menor) vai para o temporario e a intercalacao
+    // preenche da esquerda para a direita. Quando um lado vence varias vezes
+    // seguidas, passa a copiar blocos inteiros achados por galope.
+    private void intercalarBaixo(int base1, int tamanho1, int base2, int tamanho2)
+    {
+        byte[] a = this.a;
+        byte[] t = this.temporario(tamanho1);
+        System.arraycopy(a, base1, t, 0, tamanho1);
+
+        int cursor1 = 0;
+        int cursor2 = base2;
+        int destino = base1;
+        a[destino++] = a[cursor2++];
+        if (--tamanho2 == 0)
+        {
+            System.arraycopy(t, cursor1, a, destino, tamanho1);
+            return;
+        }
+        if (tamanho1 == 1)
+        {
+            System.arraycopy(a, cursor2, a, destino, tamanho2);
+            a[destino + tamanho2] = t[cursor1];
+            return;
+        }
+
+        int galope = this.galope;
+        externo:
+        while (true)
+        {
+            int vitorias1 = 0;
+            int vitorias2 = 0;
+            do
+            {
+                if (a[cursor2] < t[cursor1])
+                {
+                    a[destino++] = a[cursor2++];
+                    vitorias2++;
+                    vitorias1 = 0;
+                    if (--tamanho2 == 0)
+                        break externo;
+                }
+                else
+                {
+                    a[destino++] = t[cursor1++];
+                    vitorias1++;
+                    vitorias2 = 0;
+                    if (--tamanho1 == 1)
+                        break externo;
+                }
+            }
+            while ((vitorias1 | vitorias2) < galope);
+
+            do
+            {
+                vitorias1 = galoparDireita(a[cursor2], t, cursor1, tamanho1, 0);
+                if (vitorias1 != 0)
+                {
+                    System.arraycopy(t, cursor1, a, destino, vitorias1);
+                    destino += vitorias1;
+                    cursor1 += vitorias1;
+                    tamanho1 -= vitorias1;
+                    if (tamanho1 <= 1)
+                        break externo;
+                }
+                a[destino++] = a[cursor2++];
+                if (--tamanho2 == 0)
+                    break externo;
+
+                vitorias2 = galoparEsquerda(t[cursor1], a, cursor2, tamanho2, 0);
+                if (vitorias2 != 0)
+                {
+                    System.arraycopy(a, cursor2, a, destino, vitorias2);
+                    destino += vitorias2;
+                    cursor2 += vitorias2;
+                    tamanho2 -= vitorias2;
+                    if (tamanho2 == 0)
+                        break externo;
+                }
+                a[destino++] = t[cursor1++];
+                if (--tamanho1 == 1)
+                    break externo;
+                galope--;
+            }
+            while (vitorias1 >= GALOPE_MINIMO | vitorias2 >= GALOPE_MINIMO);
+
+            if (galope < 0)
+                galope = 0;
+            galope += 2;
+        }
+        this.galope = Math.max(1, galope);
+
+        if (tamanho1 == 1)
+        {
+            System.arraycopy(a, cursor2, a, destino, tamanho2);
+            a[destino + tamanho2] = t[cursor1];
+        }
+        else
+            System.arraycopy(t, cursor1, a, destino, tamanho1);
+    }
+
+    // Simetrica a intercalarBaixo: a corrida da direita vai para o
+    // temporario e a intercalacao preenche da direita para a esquerda.
+    private void intercalarAlto(int base1, int tamanho1, int base2, int tamanho2)
+    {
+        byte[] a = this.a;
+        byte[] t = this.temporario(tamanho2);
+        System.arraycopy(a, base2, t, 0, tamanho2);
+
+        int cursor1 = base1 + tamanho1 - 1;
+        int cursor2 = tamanho2 - 1;
+        int destino = base2 + tamanho2 - 1;
+        a[destino--] = a[cursor1--];
+        if (--tamanho1 == 0)
+        {
+            System.arraycopy(t, 0, a, destino - (tamanho2 - 1), tamanho2);
+            return;
+        }
+        if (tamanho2 == 1)
+        {
+            destino -= tamanho1;
+            cursor1 -= tamanho1;
+            System.arraycopy(a, cursor1 + 1, a, destino + 1, tamanho1);
+            a[destino] = t[cursor2];
+            return;
+        }
+
+        int galope = this.galope;
+        externo:
+        while (true)
+        {
+            int vitorias1 = 0;
+            int vitorias2 = 0;
+            do
+            {
+                if (t[cursor2] < a[cursor1])
+                {
+                    a[destino--] = a[cursor1--];
+                    vitorias1++;
+                    vitorias2 = 0;
+                    if (--tamanho1 == 0)
+                        break externo;
+                }
+                else
+                {
+                    a[destino--] = t[cursor2--];
+                    vitorias2++;
+                    vitorias1 = 0;
+                    if (--tamanho2 == 1)
+                        break externo;
+                }
+            }
+            while ((vitorias1 | vitorias2) < galope);
+
+            do
+            {
+                vitorias1 = tamanho1 - galoparDireita(t[cursor2], a, base1, tamanho1, tamanho1 - 1);
+                if (vitorias1 != 0)
+                {
+                    destino -= vitorias1;
+                    cursor1 -= vitorias1;
+                    tamanho1 -= vitorias1;
+                    System.arraycopy(a, cursor1 + 1, a, destino + 1, vitorias1);
+                    if (tamanho1 == 0)
+                        break externo;
+                }
+                a[destino--] = t[cursor2--];
+                if (--tamanho2 == 1)
+                    break externo;
+
+                vitorias2 = tamanho2 - galoparEsquerda(a[cursor1], t, 0, tamanho2, tamanho2 - 1);
+                if (vitorias2 != 0)
+                {
+                    destino -= vitorias2;
+                    cursor2 -= vitorias2;
+                    tamanho2 -= vitorias2;
+                    System.arraycopy(t, cursor2 + 1, a, destino + 1, vitorias2);
+                    if (tamanho2 <= 1)
+                        break externo;
+                }
+                a[destino--] = a[cursor1--];
+                if (--tamanho1 == 0)
+                    break externo;
+                galope--;
+            }
+            while (vitorias1 >= GALOPE_MINIMO | vitorias2 >= GALOPE_MINIMO);
+
+            if (galope < 0)
+                galope = 0;
+            galope += 2;
+        }
+        this.galope = Math.max(1, galope);
+
+        if (tamanho2 == 1)
+        {
+            destino -= tamanho1;
+            cursor1 -= tamanho1;
+            System.arraycopy(a, cursor1 + 1, a, destino + 1, tamanho1);
+            a[destino] = t[cursor2];
+        }
+        else
+            System.arraycopy(t, 0, a, destino - (tamanho2 - 1), tamanho2);
+    }
+}
@@ -0,0 +1,78 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Ordena pela ordem total do IEEE 754 (-NaN < -Inf < ... < -0.0 < +0.0 < ... < +Inf < +NaN)
+// reinterpretando os bits como long com sinal e delegando ao OrdenadorLong.
+public final class OrdenadorDouble
+{
+    private OrdenadorDouble() {}
+
+    public static double[] sort(double[] dados)
+    {
+        if (dados == null || dados.length == 0)
+            return new double[0];
+
+        double[] copia = Arrays.copyOf(dados, dados.length);
+        sortInPlace(copia, 0, copia.length);
+        return copia;
+    }
+
+    public static void sortInPlace(double[] a, int from, int to)
+    {
+        if (a == null || from < 0 || to > a.length || from > to)
+            throw new ArrayIndexOutOfBoundsException("Faixa invalida: [" + from + ", " + to + ")");
+
+        long[] chaves = new long[to - from];
+        for (int i = from; i < to; i++)
+            chaves[i - from] = chave(a[i]);
+
+        OrdenadorLong.sortInPlace(chaves, 0, chaves.length);
+
+        for (int i = from; i < to; i++)
+            a[i] = valor(chaves[i - from]);
+    }
+
+    public static double[] merge(double[] esquerdo, double[] direito)
+    {
+        List<double[]> partes = new ArrayList<>(2);
+        partes.add(esquerdo);
+        partes.add(direito);
+        return mergeAll(partes);
+    }
+
+    public static double[] mergeAll(List<double[]> partes)
+    {
+        if (partes == null || partes.isEmpty())
+            return new double[0];
+
+        List<long[]> chaves = new ArrayList<>(partes.size());
+        for (double[] parte : partes)
+        {
+            if (parte == null)
+                continue;
+
+            long[] convertida = new long[parte.length];
+            for (int i = 0; i < parte.length; i++)
+                convertida[i] = chave(parte[i]);
+            chaves.add(convertida);
+        }
+
+        long[] intercaladas = OrdenadorLong.mergeAll(chaves);
+        double[] resultado = new double[intercaladas.length];
+        for (int i = 0; i < intercaladas.length; i++)
+            resultado[i] = valor(intercaladas[i]);
+        return resultado;
+    }
+
+    static long chave(double x)
+    {
+        long bits = Double.doubleToRawLongBits(x);
+        return bits ^ ((bits >> 63) >>> 1);
+    }
+
+    static double valor(long chave)
+    {
+        return Double.longBitsToDouble(chave ^ ((chave >> 63) >>> 1));
+    }
+}
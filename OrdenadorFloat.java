@@ -0,0 +1,78 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Ordena pela ordem total do IEEE 754 (-NaN < -Inf < ... < -0.0 < +0.0 < ... < +Inf < +NaN)
+// reinterpretando os bits como int com sinal e delegando ao OrdenadorInt.
+public final class OrdenadorFloat
+{
+    private OrdenadorFloat() {}
+
+    public static float[] sort(float[] dados)
+    {
+        if (dados == null || dados.length == 0)
+            return new float[0];
+
+        float[] copia = Arrays.copyOf(dados, dados.length);
+        sortInPlace(copia, 0, copia.length);
+        return copia;
+    }
+
+    public static void sortInPlace(float[] a, int from, int to)
+    {
+        if (a == null || from < 0 || to > a.length || from > to)
+            throw new ArrayIndexOutOfBoundsException("Faixa invalida: [" + from + ", " + to + ")");
+
+        int[] chaves = new int[to - from];
+        for (int i = from; i < to; i++)
+            chaves[i - from] = chave(a[i]);
+
+        OrdenadorInt.sortInPlace(chaves, 0, chaves.length);
+
+        for (int i = from; i < to; i++)
+            a[i] = valor(chaves[i - from]);
+    }
+
+    public static float[] merge(float[] esquerdo, float[] direito)
+    {
+        List<float[]> partes = new ArrayList<>(2);
+        partes.add(esquerdo);
+        partes.add(direito);
+        return mergeAll(partes);
+    }
+
+    public static float[] mergeAll(List<float[]> partes)
+    {
+        if (partes == null || partes.isEmpty())
+            return new float[0];
+
+        List<int[]> chaves = new ArrayList<>(partes.size());
+        for (float[] parte : partes)
+        {
+            if (parte == null)
+                continue;
+
+            int[] convertida = new int[parte.length];
+            for (int i = 0; i < parte.length; i++)
+                convertida[i] = chave(parte[i]);
+            chaves.add(convertida);
+        }
+
+        int[] intercaladas = OrdenadorInt.mergeAll(chaves);
+        float[] resultado = new float[intercaladas.length];
+        for (int i = 0; i < intercaladas.length; i++)
+            resultado[i] = valor(intercaladas[i]);
+        return resultado;
+    }
+
+    static int chave(float x)
+    {
+        int bits = Float.floatToRawIntBits(x);
+        return bits ^ ((bits >> 31) >>> 1);
+    }
+
+    static float valor(int chave)
+    {
+        return Float.intBitsToFloat(chave ^ ((chave >> 31) >>> 1));
+    }
+}
@@ -0,0 +1,496 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+public final class OrdenadorInt
+{
+    private static final int LIMIAR_ORDENACAO_FJ = 8_192;
+    private static final int LIMIAR_MERGE_FJ     = 32_768;
+    private static final int LIMIAR_INSERCAO     = 24;
+    private static final int LIMIAR_RADIX        = 1 << 12;
+    private static final int LIMIAR_BLOCO_RADIX  = 1 << 16;
+    private static final int BITS_DIGITO         = 8;
+    private static final int BALDES              = 1 << BITS_DIGITO;
+    private static final int PASSADAS            = Integer.SIZE / BITS_DIGITO;
+    private static final int LARGURA_BUFFER      = 64 / Integer.BYTES;
+
+    private OrdenadorInt() {}
+
+    public static int[] sort(int[] dados)
+    {
+        if (dados == null || dados.length == 0)
+            return new int[0];
+
+        int[] copia = Arrays.copyOf(dados, dados.length);
+        sortInPlace(copia, 0, copia.length);
+        return copia;
+    }
+
+    // Abaixo de alguns milhares de elementos as passadas fixas do radix custam
+    // mais que as comparacoes do merge sort.
+    public static void sortInPlace(int[] a, int from, int to)
+    {
+        if (a != null && to - from >= LIMIAR_RADIX)
+            sortRadixInPlace(a, from, to);
+        else
+            sortMergeInPlace(a, from, to);
+    }
+
+    public static void sortMergeInPlace(int[] a, int from, int to)
+    {
+        if (a == null || from < 0 || to > a.length || from > to)
+            throw new ArrayIndexOutOfBoundsException("Faixa invalida: [" + from + ", " + to + ")");
+
+        if (to - from < 2)
+            return;
+
+        int[] auxiliar = new int[to - from];
+        ParallelMergeSorter.getPool().invoke(new TarefaOrdenacao(a, auxiliar, from, from, to, false));
+    }
+
+    public static int[] merge(int[] esquerdo, int[] direito)
+    {
+        int[] a = esquerdo == null ? new int[0] : esquerdo;
+        int[] b = direito  == null ? new int[0] : direito;
+        int[] resultado = new int[a.length + b.length];
+
+        ParallelMergeSorter.getPool().invoke(new TarefaMerge(a, 0, a.length, b, 0, b.length, resultado, 0));
+        return resultado;
+    }
+
+    public static int[] mergeAll(List<int[]> partes)
+    {
+        if (partes == null || partes.isEmpty())
+            return new int[0];
+
+        List<int[]> validas = new ArrayList<>(partes.size());
+        int total = 0;
+        for (int[] parte : partes)
+        {
+            if (parte == null)
+                continue;
+            validas.add(parte);
+            total += parte.length;
+        }
+
+        if (total == 0)
+            return new int[0];
+
+        int[] origem = new int[total];
+        int[] limites = new int[validas.size() + 1];
+        for (int i = 0; i < validas.size(); i++)
+        {
+            int[] parte = validas.get(i);
+            System.arraycopy(parte, 0, origem, limites[i], parte.length);
+            limites[i + 1] = limites[i] + parte.length;
+        }
+
+        int[] auxiliar = new int[total];
+        ParallelMergeSorter.getPool().invoke(new TarefaMergePartes(origem, auxiliar, limites, 0, validas.size(), false));
+        return origem;
+    }
+
+    public static void sortRadixInPlace(int[] a, int from, int to)
+    {
+        if (a == null || from < 0 || to > a.length || from > to)
+            throw new ArrayIndexOutOfBoundsException("Faixa invalida: [" + from + ", " + to + ")");
+
+        if (to - from < 2)
+            return;
+
+        int[] auxiliar = new int[to - from];
+        ParallelMergeSorter.getPool().invoke(new TarefaRadix(a, auxiliar, from, to));
+    }
+
+    // O digito mais significativo tem o bit de sinal invertido para que os
+    // negativos venham antes dos positivos.
+    private static int digito(int x, int passada)
+    {
+        int d = (x >>> (passada * BITS_DIGITO)) & (BALDES - 1);
+        return passada == PASSADAS - 1 ? d ^ (BALDES >>> 1) : d;
+    }
+
+    private static final class TarefaRadix extends RecursiveAction
+    {
+        private final int[] vetor;
+        private final int[] auxiliar;
+        private final int inicio;
+        private final int fim;
+
+        private TarefaRadix(int[] vetor, int[] auxiliar, int inicio, int fim)
+        {
+            this.vetor = vetor;
+            this.auxiliar = auxiliar;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected void compute()
+        {
+            int tamanho = this.fim - this.inicio;
+            int blocos = Math.max(1, Math.min(getPool().getParallelism(), tamanho / LIMIAR_BLOCO_RADIX));
+            int[] limites = new int[blocos + 1];
+            for (int b = 0; b <= blocos; b++)
+                limites[b] = (int) ((long) tamanho * b / blocos);
+
+            int[] fonte = this.vetor;
+            int[] destino = this.auxiliar;
+            int deslocamentoFonte = this.inicio;
+            int deslocamentoDestino = 0;
+
+            for (int passada = 0; passada < PASSADAS; passada++)
+            {
+                List<TarefaDigitos> contagens = new ArrayList<>(blocos);
+                for (int b = 0; b < blocos; b++)
+                    contagens.add(new TarefaDigitos(fonte, deslocamentoFonte + limites[b], deslocamentoFonte + limites[b + 1], passada));
+                invokeAll(contagens);
+
+                // Todas as chaves com o mesmo digito: a passada nao muda nada.
+                boolean trivial = false;
+                for (int d = 0; d < BALDES && !trivial; d++)
+                {
+                    int total = 0;
+                    for (TarefaDigitos contagem : contagens)
+                        total += contagem.contagens[d];
+                    trivial = total == tamanho;
+                }
+                if (trivial)
+                    continue;
+
+                int[][] posicoes = new int[blocos][BALDES];
+                int posicao = deslocamentoDestino;
+                for (int d = 0; d < BALDES; d++)
+                {
+                    for (int b = 0; b < blocos; b++)
+                    {
+                        posicoes[b][d] = posicao;
+                        posicao += contagens.get(b).contagens[d];
+                    }
+                }
+
+                List<TarefaDistribuicao> distribuicoes = new ArrayList<>(blocos);
+                for (int b = 0; b < blocos; b++)
+                    distribuicoes.add(new TarefaDistribuicao(fonte, deslocamentoFonte + limites[b], deslocamentoFonte + limites[b + 1],
+                                                             destino, posicoes[b], passada));
+                invokeAll(distribuicoes);
+
+                int[] troca = fonte;
+                fonte = destino;
+                destino = troca;
+                int trocaDeslocamento = deslocamentoFonte;
+                deslocamentoFonte = deslocamentoDestino;
+                deslocamentoDestino = trocaDeslocamento;
+            }
+
+            if (fonte != this.vetor)
+                System.arraycopy(fonte, deslocamentoFonte, this.vetor, this.inicio, tamanho);
+        }
+    }
+
+    private static final class TarefaDigitos extends RecursiveAction
+    {
+        private final int[] fonte;
+        private final int inicio;
+        private final int fim;
+        private final int passada;
+        private final int[] contagens = new int[BALDES];
+
+        private TarefaDigitos(int[] fonte, int inicio, int fim, int passada)
+        {
+            this.fonte = fonte;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.passada = passada;
+        }
+
+        @Override
+        protected void compute()
+        {
+            for (int i = this.inicio; i < this.fim; i++)
+                this.contagens[digito(this.fonte[i], this.passada)]++;
+        }
+    }
+
+    // Cada balde acumula uma linha de cache antes de ir para o destino, o que
+    // troca escritas espalhadas por copias sequenciais curtas.
+    private static final class TarefaDistribuicao extends RecursiveAction
+    {
+        private final int[] fonte;
+        private final int inicio;
+        private final int fim;
+        private final int[] destino;
+        private final int[] posicoes;
+        private final int passada;
+
+        private TarefaDistribuicao(int[] fonte, int inicio, int fim, int[] destino, int[] posicoes, int passada)
+        {
+            this.fonte = fonte;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.destino = destino;
+            this.posicoes = posicoes;
+            this.passada = passada;
+        }
+
+        @Override
+        protected void compute()
+        {
+            int[] buffers = new int[BALDES * LARGURA_BUFFER];
+            int[] ocupados = new int[BALDES];
+
+            for (int i = this.inicio; i < this.fim; i++)
+            {
+                int x = this.fonte[i];
+                int d = digito(x, this.passada);
+                int ocupado = ocupados[d];
+                buffers[d * LARGURA_BUFFER + ocupado] = x;
+                if (++ocupado == LARGURA_BUFFER)
+                {
+                    System.arraycopy(buffers, d * LARGURA_BUFFER, this.destino, this.posicoes[d], LARGURA_BUFFER);
+                    this.posicoes[d] += LARGURA_BUFFER;
+                    ocupado = 0;
+                }
+                ocupados[d] = ocupado;
+            }
+
+            for (int d = 0; d < BALDES; d++)
+                System.arraycopy(buffers, d * LARGURA_BUFFER, this.destino, this.posicoes[d], ocupados[d]);
+        }
+    }
+
+    static int coRank(int k, int[] esquerdo, int inicioEsquerdo, int fimEsquerdo, int[] direito, int inicioDireito, int fimDireito)
+    {
+        int m = fimEsquerdo - inicioEsquerdo;
+        int n = fimDireito - inicioDireito;
+        int a = inicioEsquerdo;
+        int b = inicioDireito;
+
+        int i = Math.min(k, m);
+        int j = k - i;
+        int iLow = Math.max(0, k - n);
+        int iHigh = Math.min(k, m);
+
+        while (true)
+        {
+            if (i > 0 && j < n && esquerdo[a + i - 1] > direito[b + j])
+            {
+                iHigh = i - 1;
+                int delta = (i - iLow + 1) / 2;
+                i -= delta;
+                j = k - i;
+            }
+            else if (j > 0 && i < m && direito[b + j - 1] >= esquerdo[a + i])
+            {
+                iLow = i + 1;
+                int delta = (iHigh - i + 1) / 2;
+                i += delta;
+                j = k - i;
+            }
+            else
+            {
+                return i;
+            }
+        }
+    }
+
+    // Mesmo esquema do ParallelMergeSorter.mergeSort: buffers alternados sem
+    // copia de volta e insercao nas faixas curtas.
+    private static void mergeSort(int[] vetor, int[] buffer, int deslocamento, int inicio, int fim, boolean noAuxiliar)
+    {
+        int tamanho = fim - inicio;
+        if (tamanho <= LIMIAR_INSERCAO)
+        {
+            insercao(vetor, inicio, fim);
+            if (noAuxiliar)
+                System.arraycopy(vetor, inicio, buffer, inicio - deslocamento, tamanho);
+            return;
+        }
+
+        int meio = (inicio + fim) >>> 1;
+        mergeSort(vetor, buffer, deslocamento, inicio, meio, !noAuxiliar);
+        mergeSort(vetor, buffer, deslocamento, meio, fim, !noAuxiliar);
+
+        if (noAuxiliar)
+            intercalarFaixas(vetor, inicio, meio, vetor, meio, fim, buffer, inicio - deslocamento);
+        else
+            intercalarFaixas(buffer, inicio - deslocamento, meio - deslocamento,
+                             buffer, meio - deslocamento, fim - deslocamento, vetor, inicio);
+    }
+
+    private static void insercao(int[] vetor, int inicio, int fim)
+    {
+        for (int i = inicio + 1; i < fim; i++)
+        {
+            int valor = vetor[i];
+            int j = i - 1;
+            while (j >= inicio && vetor[j] > valor)
+            {
+                vetor[j + 1] = vetor[j];
+                j--;
+            }
+            vetor[j + 1] = valor;
+        }
+    }
+
+    private static void intercalarFaixas(int[] esquerdo, int inicioEsquerdo, int fimEsquerdo,
+                                         int[] direito, int inicioDireito, int fimDireito,
+                                         int[] destino, int inicioDestino)
+    {
+        int i = inicioEsquerdo;
+        int j = inicioDireito;
+        int k = inicioDestino;
+
+        while (i < fimEsquerdo && j < fimDireito)
+        {
+            if (esquerdo[i] <= direito[j])
+                destino[k++] = esquerdo[i++];
+            else
+                destino[k++] = direito[j++];
+        }
+
+        while (i < fimEsquerdo)
+            destino[k++] = esquerdo[i++];
+
+        while (j < fimDireito)
+            destino[k++] = direito[j++];
+    }
+
+    private static final class TarefaOrdenacao extends RecursiveAction
+    {
+        private final int[] origem;
+        private final int[] auxiliar;
+        private final int deslocamento;
+        private final int inicio;
+        private final int fim;
+        private final boolean destinoNoAuxiliar;
+
+        private TarefaOrdenacao(int[] origem, int[] auxiliar, int deslocamento, int inicio, int fim, boolean destinoNoAuxiliar)
+        {
+            this.origem = origem;
+            this.auxiliar = auxiliar;
+            this.deslocamento = deslocamento;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.destinoNoAuxiliar = destinoNoAuxiliar;
+        }
+
+        @Override
+        protected void compute()
+        {
+            int tamanho = this.fim - this.inicio;
+            if (tamanho <= LIMIAR_ORDENACAO_FJ)
+            {
+                mergeSort(this.origem, this.auxiliar, this.deslocamento, this.inicio, this.fim, this.destinoNoAuxiliar);
+                return;
+            }
+
+            int meio = this.inicio + tamanho / 2;
+            invokeAll(new TarefaOrdenacao(this.origem, this.auxiliar, this.deslocamento, this.inicio, meio, !this.destinoNoAuxiliar),
+                      new TarefaOrdenacao(this.origem, this.auxiliar, this.deslocamento, meio, this.fim, !this.destinoNoAuxiliar));
+
+            if (this.destinoNoAuxiliar)
+                new TarefaMerge(this.origem, this.inicio, meio, this.origem, meio, this.fim,
+                                this.auxiliar, this.inicio - this.deslocamento).compute();
+            else
+                new TarefaMerge(this.auxiliar, this.inicio - this.deslocamento, meio - this.deslocamento,
+                                this.auxiliar, meio - this.deslocamento, this.fim - this.deslocamento,
+                                this.origem, this.inicio).compute();
+        }
+    }
+
+    private static final class TarefaMergePartes extends RecursiveAction
+    {
+        private final int[] origem;
+        private final int[] auxiliar;
+        private final int[] limites;
+        private final int primeira;
+        private final int ultima;
+        private final boolean destinoNoAuxiliar;
+
+        private TarefaMergePartes(int[] origem, int[] auxiliar, int[] limites, int primeira, int ultima, boolean destinoNoAuxiliar)
+        {
+            this.origem = origem;
+            this.auxiliar = auxiliar;
+            this.limites = limites;
+            this.primeira = primeira;
+            this.ultima = ultima;
+            this.destinoNoAuxiliar = destinoNoAuxiliar;
+        }
+
+        @Override
+        protected void compute()
+        {
+            int inicio = this.limites[this.primeira];
+            int fim = this.limites[this.ultima];
+
+            if (this.ultima - this.primeira == 1)
+            {
+                if (this.destinoNoAuxiliar)
+                    System.arraycopy(this.origem, inicio, this.auxiliar, inicio, fim - inicio);
+                return;
+            }
+
+            int parteDoMeio = (this.primeira + this.ultima) >>> 1;
+            int meio = this.limites[parteDoMeio];
+            invokeAll(new TarefaMergePartes(this.origem, this.auxiliar, this.limites, this.primeira, parteDoMeio, !this.destinoNoAuxiliar),
+                      new TarefaMergePartes(this.origem, this.auxiliar, this.limites, parteDoMeio, this.ultima, !this.destinoNoAuxiliar));
+
+            int[] fonte   = this.destinoNoAuxiliar ? this.origem : this.auxiliar;
+            int[] destino = this.destinoNoAuxiliar ? this.auxiliar : this.origem;
+            new TarefaMerge(fonte, inicio, meio, fonte, meio, fim, destino, inicio).compute();
+        }
+    }
+
+    private static final class TarefaMerge extends RecursiveAction
+    {
+        private final int[] esquerdo;
+        private final int inicioEsquerdo;
+        private final int fimEsquerdo;
+        private final int[] direito;
+        private final int inicioDireito;
+        private final int fimDireito;
+        private final int[] destino;
+        private final int inicioDestino;
+
+        private TarefaMerge(int[] esquerdo, int inicioEsquerdo, int fimEsquerdo,
+                            int[] direito, int inicioDireito, int fimDireito,
+                            int[] destino, int inicioDestino)
+        {
+            this.esquerdo = esquerdo;
+            this.inicioEsquerdo = inicioEsquerdo;
+            this.fimEsquerdo = fimEsquerdo;
+            this.direito = direito;
+            this.inicioDireito = inicioDireito;
+            this.fimDireito = fimDireito;
+            this.destino = destino;
+            this.inicioDestino = inicioDestino;
+        }
+
+        @Override
+        protected void compute()
+        {
+            int total = (this.fimEsquerdo - this.inicioEsquerdo) + (this.fimDireito - this.inicioDireito);
+            if (total <= LIMIAR_MERGE_FJ)
+            {
+                intercalarFaixas(this.esquerdo, this.inicioEsquerdo, this.fimEsquerdo,
+                                 this.direito, this.inicioDireito, this.fimDireito,
+                                 this.destino, this.inicioDestino);
+                return;
+            }
+
+            int k = total / 2;
+            int i = coRank(k, this.esquerdo, this.inicioEsquerdo, this.fimEsquerdo,
+                           this.direito, this.inicioDireito, this.fimDireito);
+            int j = k - i;
+
+            invokeAll(new TarefaMerge(this.esquerdo, this.inicioEsquerdo, this.inicioEsquerdo + i,
+                                      this.direito, this.inicioDireito, this.inicioDireito + j,
+                                      this.destino, this.inicioDestino),
+                      new TarefaMerge(this.esquerdo, this.inicioEsquerdo + i, this.fimEsquerdo,
+                                      this.direito, this.inicioDireito + j, this.fimDireito,
+                                      this.destino, this.inicioDestino + k));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+// Com apenas 65536 valores possiveis, contar e expandir custa O(n) tanto para
+// ordenar quanto para intercalar, sem nenhuma comparacao.
+public final class OrdenadorShort
+{
+    public static final int VALORES_SHORT = 1 << 16;
+
+    private static final int LIMIAR_CONTAGEM_PARALELA = 1 << 16;
+
+    private OrdenadorShort() {}
+
+    public static short[] sort(short[] dados)
+    {
+        if (dados == null || dados.length == 0)
+            return new short[0];
+
+        short[] copia = Arrays.copyOf(dados, dados.length);
+        sortInPlace(copia, 0, copia.length);
+        return copia;
+    }
+
+    public static void sortInPlace(short[] a, int from, int to)
+    {
+        if (a == null || from < 0 || to > a.length || from > to)
+            throw new ArrayIndexOutOfBoundsException("Faixa invalida: [" + from + ", " + to + ")");
+
+        if (to - from < 2)
+            return;
+
+        ParallelMergeSorter.getPool().invoke(new TarefaContagem(a, from, to));
+    }
+
+    public static short[] merge(short[] esquerdo, short[] direito)
+    {
+        List<short[]> partes = new ArrayList<>(2);
+        partes.add(esquerdo);
+        partes.add(direito);
+        return mergeAll(partes);
+    }
+
+    public static short[] mergeAll(List<short[]> partes)
+    {
+        if (partes == null || partes.isEmpty())
+            return new short[0];
+
+        int total = 0;
+        for (short[] parte : partes)
+        {
+            if (parte != null)
+                total += parte.length;
+        }
+
+        short[] resultado = new short[total];
+        int posicao = 0;
+        for (short[] parte : partes)
+        {
+            if (parte == null)
+                continue;
+            System.arraycopy(parte, 0, resultado, posicao, parte.length);
+            posicao += parte.length;
+        }
+
+        sortInPlace(resultado, 0, resultado.length);
+        return resultado;
+    }
+
+    private static final class TarefaContagem extends RecursiveAction
+    {
+        private final short[] vetor;
+        private final int inicio;
+        private final int fim;
+
+        private TarefaContagem(short[] vetor, int inicio, int fim)
+        {
+            this.vetor = vetor;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected void compute()
+        {
+            int tamanho = this.fim - this.inicio;
+            int partes = Math.max(1, Math.min(getPool().getParallelism(), tamanho / LIMIAR_CONTAGEM_PARALELA));
+
+            List<TarefaHistograma> contagens = new ArrayList<>(partes);
+            for (int p = 0; p < partes; p++)
+                contagens.add(new TarefaHistograma(this.vetor,
+                                                   this.inicio + (int) ((long) tamanho * p / partes),
+                                                   this.inicio + (int) ((long) tamanho * (p + 1) / partes)));
+            invokeAll(contagens);
+
+            int[] posicoes = new int[VALORES_SHORT + 1];
+            for (TarefaHistograma parcial : contagens)
+            {
+                for (int v = 0; v < VALORES_SHORT; v++)
+                    posicoes[v + 1] += parcial.contagens[v];
+            }
+            posicoes[0] = this.inicio;
+            for (int v = 0; v < VALORES_SHORT; v++)
+                posicoes[v + 1] += posicoes[v];
+
+            List<TarefaPreenchimento> preenchimentos = new ArrayList<>(partes);
+            for (int p = 0; p < partes; p++)
+                preenchimentos.add(new TarefaPreenchimento(this.vetor, posicoes,
+                                                           VALORES_SHORT * p / partes,
+                                                           VALORES_SHORT * (p + 1) / partes));
+            invokeAll(preenchimentos);
+        }
+    }
+
+    private static final class TarefaHistograma extends RecursiveAction
+    {
+        private final short[] vetor;
+        private final int inicio;
+        private final int fim;
+        private final int[] contagens = new int[VALORES_SHORT];
+
+        private TarefaHistograma(short[] vetor, int inicio, int fim)
+        {
+            this.vetor = vetor;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected void compute()
+        {
+            for (int i = this.inicio; i < this.fim; i++)
+                this.contagens[this.vetor[i] - Short.MIN_VALUE]++;
+        }
+    }
+
+    private static final class TarefaPreenchimento extends RecursiveAction
+    {
+        private final short[] vetor;
+        private final int[] posicoes;
+        private final int primeiro;
+        private final int ultimo;
+
+        private TarefaPreenchimento(short[] vetor, int[] posicoes, int primeiro, int ultimo)
+        {
+            this.vetor = vetor;
+            this.posicoes = posicoes;
+            this.primeiro = primeiro;
+            this.ultimo = ultimo;
+        }
+
+        @Override
+        protected void compute()
+        {
+            for (int v = this.primeiro; v < this.ultimo; v++)
+                Arrays.fill(this.vetor, this.posicoes[v], this.posicoes[v + 1], (short) (v + Short.MIN_VALUE));
+        }
+    }
+}
@@ -1,13 +1,66 @@
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToLongFunction;
 
 public final class ParallelMergeSorter
 {
     private static final int LIMIAR_MERGE_PARALELO = 200_000;
+    private static final int LIMIAR_ORDENACAO_FJ   = 8_192;
+    private static final int LIMIAR_MERGE_FJ       = 32_768;
+    private static final int LIMIAR_CONTAGEM_PARALELA = 1 << 16;
+    private static final int LIMIAR_INSERCAO       = 24;
+    private static final int LIMIAR_SEM_DESVIO     = 256;
+    private static final int LIMIAR_AMOSTRAGEM     = 1 << 14;
+
+    public static final int VALORES_BYTE = 256;
+
+    private static volatile ForkJoinPool pool;
 
     private ParallelMergeSorter() {}
 
+    public static synchronized void configurarPool(int paralelismo)
+    {
+        ForkJoinPool anterior = pool;
+        pool = new ForkJoinPool(Math.max(1, paralelismo));
+        if (anterior != null)
+            anterior.shutdown();
+    }
+
+    public static ForkJoinPool getPool()
+    {
+        ForkJoinPool atual = pool;
+        if (atual == null)
+        {
+            synchronized (ParallelMergeSorter.class)
+            {
+                if (pool == null)
+                    pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors()));
+                atual = pool;
+            }
+        }
+        return atual;
+    }
+
+    public static byte[] sortForkJoin(byte[] dados)
+    {
+        if (dados == null || dados.length == 0)
+            return new byte[0];
+
+        byte[] copia = Arrays.copyOf(dados, dados.length);
+        byte[] auxiliar = new byte[copia.length];
+        getPool().invoke(new TarefaOrdenacao(copia, auxiliar, 0, copia.length, false));
+        return copia;
+    }
+
+    public static byte[] mergeAllForkJoin(List<byte[]> partes)
+    {
+        return mergeAll(partes, getPool().getParallelism());
+    }
+
     public static byte[] sort(byte[] dados, int maxThreads)
     {
         if (dados == null || dados.length == 0)
@@ -44,232 +97,488 @@ public final class ParallelMergeSorter
         return mergeAll(pedacos, threads);
     }
 
+    public static <T> T[] sort(T[] itens, Comparator<? super T> cmp, int threads)
+    {
+        if (itens == null || cmp == null)
+            throw new IllegalArgumentException("Vetor ou comparador ausente");
+
+        T[] copia = Arrays.copyOf(itens, itens.length);
+        if (copia.length < 2)
+            return copia;
+
+        // A granularidade acompanha o numero de threads pedido: com uma so
+        // thread a folha cobre o vetor inteiro e nada e bifurcado.
+        int porThread = (copia.length + Math.max(1, threads) - 1) / Math.max(1, threads);
+        int limiarOrdenacao = Math.max(LIMIAR_ORDENACAO_FJ, porThread);
+        int limiarMerge = Math.max(LIMIAR_MERGE_FJ, porThread);
+
+        T[] auxiliar = Arrays.copyOf(itens, itens.length);
+        getPool().invoke(new TarefaOrdenacaoObjetos<T>(copia, auxiliar, cmp, 0, copia.length, false, limiarOrdenacao, limiarMerge));
+        return copia;
+    }
+
+    // Extrai cada chave uma unica vez e ordena os indices de forma estavel pelas
+    // chaves primitivas, sem chamar codigo do usuario durante as comparacoes.
+    public static <T> T[] sortByKey(T[] itens, ToLongFunction<? super T> chave)
+    {
+        if (itens == null || chave == null)
+            throw new IllegalArgumentException("Vetor ou extrator de chave ausente");
+
+        long[] chaves = new long[itens.length];
+        for (int i = 0; i < itens.length; i++)
+            chaves[i] = chave.applyAsLong(itens[i]);
+
+        int[] permutacao = OrdenadorChaveValor.identidade(itens.length);
+        OrdenadorChaveValor.sort(chaves, permutacao);
+
+        T[] resultado = Arrays.copyOf(itens, itens.length);
+        for (int i = 0; i < permutacao.length; i++)
+            resultado[i] = itens[permutacao[i]];
+        return resultado;
+    }
+
     public static byte[] sortSequential(byte[] dados)
     {
         if (dados == null || dados.length == 0)
             return new byte[0];
 
-        byte[] copia = Arrays.copyOf(dados, dados.length);
-        byte[] buffer = new byte[copia.length];
-        mergeSort(copia, buffer, 0, copia.length - 1);
-        return copia;
+        byte[] resultado = new byte[dados.length];
+        expandirHistograma(histograma(dados, 0, dados.length, 1), resultado, 0, 1);
+        return resultado;
     }
 
-    public static byte[] mergeAll(List<byte[]> partes, int maxThreads)
+    // Sample sort: particiona a entrada em baldes por separadores amostrados
+    // e ordena cada balde sem intercalacao final. Entradas pequenas vao
+    // direto para o merge sort.
+    public static byte[] sortSample(byte[] dados, int maxThreads)
     {
-        if (partes == null || partes.isEmpty())
+        if (dados == null || dados.length == 0)
             return new byte[0];
 
-        List<byte[]> atual = new ArrayList<>();
-        for (byte[] parte : partes)
+        if (dados.length < LIMIAR_AMOSTRAGEM)
         {
-            if (parte == null)
-                continue;
-            if (parte.length == 0)
-            {
-                atual.add(new byte[0]);
-            }
-            else
-            {
-                atual.add(parte);
-            }
+            byte[] copia = Arrays.copyOf(dados, dados.length);
+            mergeSort(copia, new byte[copia.length], 0, 0, copia.length, false);
+            return copia;
         }
 
-        if (atual.isEmpty())
+        byte[] resultado = new byte[dados.length];
+        OrdenadorAmostragem.ordenar(dados, resultado, maxThreads);
+        return resultado;
+    }
+
+    public static byte[] sortCounting(byte[] dados, int maxThreads)
+    {
+        if (dados == null || dados.length == 0)
             return new byte[0];
 
-        int threads = Math.max(1, maxThreads);
+        byte[] resultado = new byte[dados.length];
+        expandirHistograma(histograma(dados, 0, dados.length, maxThreads), resultado, 0, maxThreads);
+        return resultado;
+    }
 
-        while (atual.size() > 1)
-        {
-            List<byte[]> proximo = new ArrayList<>();
-            List<MergeJob> jobs = new ArrayList<>();
+    public static void sortCountingInPlace(byte[] a, int from, int to, int threads)
+    {
+        if (a == null)
+            throw new IllegalArgumentException("Vetor ausente");
+        if (from < 0 || to > a.length || from > to)
+            throw new ArrayIndexOutOfBoundsException("Faixa invalida: [" + from + ", " + to + ")");
 
-            for (int i = 0; i < atual.size(); i += 2)
-            {
-                if (i + 1 < atual.size())
-                {
-                    jobs.add(new MergeJob(atual.get(i), atual.get(i + 1)));
-                }
-                else
-                {
-                    proximo.add(atual.get(i));
-                }
-            }
+        if (to - from <= 1)
+            return;
 
-            executarEmLotes(jobs, threads, proximo);
-            atual = proximo;
-        }
+        expandirHistograma(histograma(a, from, to, threads), a, from, threads);
+    }
 
-        return atual.get(0);
+    // A contagem e um radix de um unico digito: so perde para o merge sort
+    // quando o vetor e menor que o proprio histograma.
+    public static void sortAutoInPlace(byte[] a, int from, int to, int threads)
+    {
+        if (a != null && to - from < VALORES_BYTE)
+            sortInPlace(a, from, to, 1);
+        else
+            sortCountingInPlace(a, from, to, threads);
     }
 
-    private static List<byte[]> particionar(byte[] dados, int partes)
+    public static long[] histograma(byte[] dados, int from, int to, int threads)
     {
-        List<byte[]> resultado = new ArrayList<>(partes);
-        int tamanho = dados.length;
+        long[] contagens = new long[VALORES_BYTE];
+        int tamanho = to - from;
+        int partes = Math.min(Math.max(1, threads), Math.max(1, tamanho / LIMIAR_CONTAGEM_PARALELA));
+
+        if (partes == 1)
+        {
+            contarFaixa(dados, from, to, contagens);
+            return contagens;
+        }
+
+        List<TarefaHistograma> tarefas = new ArrayList<>(partes);
         int base = tamanho / partes;
         int sobra = tamanho % partes;
-        int inicio = 0;
-
+        int inicio = from;
         for (int i = 0; i < partes; i++)
         {
-            int incremento = base + (i < sobra ? 1 : 0);
-            int fim = inicio + incremento;
-            byte[] pedaco = Arrays.copyOfRange(dados, inicio, fim);
-            resultado.add(pedaco);
+            int fim = inicio + base + (i < sobra ? 1 : 0);
+            tarefas.add(new TarefaHistograma(dados, inicio, fim));
             inicio = fim;
         }
 
-        return resultado;
+        getPool().invoke(new TarefaGrupo(tarefas));
+
+        for (TarefaHistograma tarefa : tarefas)
+            for (int v = 0; v < VALORES_BYTE; v++)
+                contagens[v] += tarefa.contagens[v];
+
+        return contagens;
     }
 
-    private static void executarEmLotes(List<MergeJob> jobs, int maxThreads, List<byte[]> destino)
+    public static void expandirHistograma(long[] contagens, byte[] destino, int inicio, int threads)
     {
-        int indice = 0;
-        while (indice < jobs.size())
-        {
-            int lote = Math.min(maxThreads, jobs.size() - indice);
-            int threadsPorJob = Math.max(1, maxThreads / lote);
-            List<Thread> ativos = new ArrayList<>(lote);
+        if (contagens == null || contagens.length != VALORES_BYTE)
+            throw new IllegalArgumentException("Histograma invalido");
 
-            for (int i = 0; i < lote; i++)
-            {
-                MergeJob job = jobs.get(indice + i);
-                job.definirLimiteThreads(threadsPorJob);
-                Thread t = new Thread(job);
-                ativos.add(t);
-                t.start();
-            }
+        long[] acumulado = acumular(contagens);
+        long total = acumulado[VALORES_BYTE];
+        if (inicio < 0 || inicio + total > destino.length)
+            throw new ArrayIndexOutOfBoundsException("Destino pequeno demais para o histograma");
 
-            for (int i = 0; i < lote; i++)
-            {
-                MergeJob job = jobs.get(indice + i);
-                try
-                {
-                    ativos.get(i).join();
-                }
-                catch (InterruptedException e)
-                {
-                    Thread.currentThread().interrupt();
-                }
-                destino.add(job.getResultado());
-            }
+        int tamanho = (int) total;
+        int partes = Math.min(Math.max(1, threads), Math.max(1, tamanho / LIMIAR_CONTAGEM_PARALELA));
 
-            indice += lote;
+        if (partes == 1)
+        {
+            preencherFaixa(acumulado, destino, inicio, 0, tamanho);
+            return;
         }
+
+        List<RecursiveAction> tarefas = new ArrayList<>(partes);
+        int base = tamanho / partes;
+        int sobra = tamanho % partes;
+        int posicao = 0;
+        for (int i = 0; i < partes; i++)
+        {
+            int fim = posicao + base + (i < sobra ? 1 : 0);
+            tarefas.add(new TarefaPreenchimento(acumulado, destino, inicio, posicao, fim));
+            posicao = fim;
+        }
+
+        getPool().invoke(new TarefaGrupo(tarefas));
     }
 
-    private static void mergeSort(byte[] vetor, byte[] buffer, int inicio, int fim)
+    public static void expandirHistograma(long[] contagens, int posicaoInicial, byte[] destino, int inicio, int quantidade)
+    {
+        if (contagens == null || contagens.length != VALORES_BYTE)
+            throw new IllegalArgumentException("Histograma invalido");
+
+        long[] acumulado = acumular(contagens);
+        if (posicaoInicial < 0 || posicaoInicial + (long) quantidade > acumulado[VALORES_BYTE])
+            throw new ArrayIndexOutOfBoundsException("Faixa fora do histograma");
+
+        if (quantidade > 0)
+            preencherFaixa(acumulado, destino, inicio - posicaoInicial, posicaoInicial, posicaoInicial + quantidade);
+    }
+
+    private static long[] acumular(long[] contagens)
+    {
+        long[] acumulado = new long[VALORES_BYTE + 1];
+        for (int v = 0; v < VALORES_BYTE; v++)
+            acumulado[v + 1] = acumulado[v] + contagens[v];
+        return acumulado;
+    }
+
+    private static void contarFaixa(byte[] dados, int inicio, int fim, long[] contagens)
+    {
+        int[] locais = new int[VALORES_BYTE];
+        for (int i = inicio; i < fim; i++)
+            locais[dados[i] - Byte.MIN_VALUE]++;
+
+        for (int v = 0; v < VALORES_BYTE; v++)
+            contagens[v] += locais[v];
+    }
+
+    // Faixa vazia, como a de um histograma zerado, nao tem valor a procurar.
+    private static void preencherFaixa(long[] acumulado, byte[] destino, int deslocamento, int inicio, int fim)
     {
         if (inicio >= fim)
             return;
 
-        int meio = (inicio + fim) / 2;
-        mergeSort(vetor, buffer, inicio, meio);
-        mergeSort(vetor, buffer, meio + 1, fim);
-        intercalar(vetor, buffer, inicio, meio, fim);
+        int v = 0;
+        while (v < VALORES_BYTE - 1 && acumulado[v + 1] <= inicio)
+            v++;
+
+        int posicao = inicio;
+        while (posicao < fim)
+        {
+            int limite = (int) Math.min(fim, acumulado[v + 1]);
+            Arrays.fill(destino, deslocamento + posicao, deslocamento + limite, (byte) (v + Byte.MIN_VALUE));
+            posicao = limite;
+            v++;
+        }
+    }
+
+    public static void sortInPlace(byte[] a, int from, int to, int threads)
+    {
+        if (a == null)
+            throw new IllegalArgumentException("Vetor ausente");
+        if (from < 0 || to > a.length || from > to)
+            throw new ArrayIndexOutOfBoundsException("Faixa invalida: [" + from + ", " + to + ")");
+
+        int tamanho = to - from;
+        if (tamanho <= 1)
+            return;
+
+        int partes = Math.min(Math.max(1, threads), tamanho);
+        int[] limites = new int[partes + 1];
+        int base = tamanho / partes;
+        int sobra = tamanho % partes;
+        limites[0] = from;
+        for (int i = 0; i < partes; i++)
+            limites[i + 1] = limites[i] + base + (i < sobra ? 1 : 0);
+
+        byte[] rascunho = new byte[tamanho];
+        getPool().invoke(new TarefaOrdenacaoNoLugar(a, rascunho, limites));
     }
 
-    private static void intercalar(byte[] vetor, byte[] buffer, int inicio, int meio, int fim)
+    public static byte[] mergeAll(List<byte[]> partes, int maxThreads)
     {
-        int i = inicio;
-        int j = meio + 1;
-        int k = inicio;
+        if (partes == null || partes.isEmpty())
+            return new byte[0];
 
-        while (i <= meio && j <= fim)
+        List<byte[]> validas = new ArrayList<>();
+        for (byte[] parte : partes)
         {
-            if (vetor[i] <= vetor[j])
-                buffer[k++] = vetor[i++];
-            else
-                buffer[k++] = vetor[j++];
+            if (parte != null && parte.length > 0)
+                validas.add(parte);
         }
 
-        while (i <= meio)
-            buffer[k++] = vetor[i++];
+        if (validas.isEmpty())
+            return new byte[0];
 
-        while (j <= fim)
-            buffer[k++] = vetor[j++];
+        List<byte[]> atual = concatenarEncadeadas(validas);
+        if (atual.size() == 1)
+            return atual.get(0);
 
-        for (int idx = inicio; idx <= fim; idx++)
-            vetor[idx] = buffer[idx];
+        return intercalarMultiplo(atual.toArray(new byte[atual.size()][]), Math.max(1, maxThreads));
     }
 
-    private static final class SortWorker implements Runnable
+    // Intercala k partes numa unica passada: a saida e cortada em pedacos de
+    // mesmo tamanho por selecao em multiplas sequencias e cada pedaco e
+    // intercalado por uma arvore de perdedores, sem rodadas intermediarias.
+    private static byte[] intercalarMultiplo(byte[][] partes, int threads)
     {
-        private final byte[] valores;
+        long soma = 0;
+        for (byte[] parte : partes)
+            soma += parte.length;
+        if (soma > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("Partes somam " + soma + " elementos, mais que um vetor comporta");
 
-        private SortWorker(byte[] valores)
+        int total = (int) soma;
+        byte[] destino = new byte[total];
+        int pedacos = Math.max(1, Math.min(threads, total / LIMIAR_MERGE_FJ));
+
+        int[][] cortes = new int[pedacos + 1][];
+        cortes[0] = new int[partes.length];
+        cortes[pedacos] = new int[partes.length];
+        for (int i = 0; i < partes.length; i++)
+            cortes[pedacos][i] = partes[i].length;
+        for (int p = 1; p < pedacos; p++)
+            cortes[p] = selecionar(partes, (int) ((long) total * p / pedacos));
+
+        List<TarefaIntercalacaoMultipla> tarefas = new ArrayList<>(pedacos);
+        for (int p = 0; p < pedacos; p++)
+            tarefas.add(new TarefaIntercalacaoMultipla(partes, cortes[p], cortes[p + 1], destino, (int) ((long) total * p / pedacos)));
+
+        if (pedacos == 1)
+            tarefas.get(0).compute();
+        else
+            getPool().invoke(new TarefaGrupo(tarefas));
+        return destino;
+    }
+
+    // Generaliza o coRank para k sequencias: quantos elementos de cada parte
+    // ficam entre os primeiros "posicao" da saida. A busca e feita sobre os
+    // 256 valores possiveis, e os iguais ao valor de corte sao distribuidos
+    // pelas partes em ordem, como a intercalacao estavel os emitiria.
+    static int[] selecionar(byte[][] partes, int posicao)
+    {
+        int baixo = Byte.MIN_VALUE;
+        int alto = Byte.MAX_VALUE;
+        while (baixo < alto)
         {
-            this.valores = valores;
+            int meio = (baixo + alto) >> 1;
+            long ateMeio = 0;
+            for (byte[] parte : partes)
+                ateMeio += primeiroMaior(parte, 0, parte.length, meio);
+            if (ateMeio > posicao)
+                alto = meio;
+            else
+                baixo = meio + 1;
         }
 
-        @Override
-        public void run()
+        int[] cortes = new int[partes.length];
+        int restante = posicao;
+        for (int i = 0; i < partes.length; i++)
         {
-            if (this.valores.length <= 1)
-                return;
-
-            byte[] buffer = new byte[this.valores.length];
-            mergeSort(this.valores, buffer, 0, this.valores.length - 1);
+            cortes[i] = primeiroMaior(partes[i], 0, partes[i].length, baixo - 1);
+            restante -= cortes[i];
+        }
+        for (int i = 0; i < partes.length && restante > 0; i++)
+        {
+            int iguais = primeiroMaior(partes[i], cortes[i], partes[i].length, baixo) - cortes[i];
+            int tomados = Math.min(iguais, restante);
+            cortes[i] += tomados;
+            restante -= tomados;
         }
+        return cortes;
     }
 
-    private static final class MergeJob implements Runnable
+    // Primeira posicao em [inicio, fim) com valor maior que limite.
+    private static int primeiroMaior(byte[] parte, int inicio, int fim, int limite)
     {
-        private final byte[] esquerdo;
-        private final byte[] direito;
-        private int maxThreads = 1;
-        private byte[] resultado;
+        while (inicio < fim)
+        {
+            int meio = (inicio + fim) >>> 1;
+            if (parte[meio] <= limite)
+                inicio = meio + 1;
+            else
+                fim = meio;
+        }
+        return inicio;
+    }
 
-        private MergeJob(byte[] esquerdo, byte[] direito)
+    // Partes vizinhas que ja se encadeiam (a ultima da esquerda nao passa da
+    // primeira da direita) viram uma so por copia, sem rodada de intercalacao.
+    private static List<byte[]> concatenarEncadeadas(List<byte[]> partes)
+    {
+        List<byte[]> resultado = new ArrayList<>(partes.size());
+        int i = 0;
+        while (i < partes.size())
         {
-            this.esquerdo = esquerdo == null ? new byte[0] : esquerdo;
-            this.direito  = direito  == null ? new byte[0] : direito;
+            int j = i + 1;
+            int total = partes.get(i).length;
+            while (j < partes.size() && encadeadas(partes.get(j - 1), partes.get(j)))
+                total += partes.get(j++).length;
+
+            if (j == i + 1)
+                resultado.add(partes.get(i));
+            else
+            {
+                byte[] unida = new byte[total];
+                int posicao = 0;
+                for (int k = i; k < j; k++)
+                {
+                    System.arraycopy(partes.get(k), 0, unida, posicao, partes.get(k).length);
+                    posicao += partes.get(k).length;
+                }
+                resultado.add(unida);
+            }
+            i = j;
         }
+        return resultado;
+    }
+
+    private static boolean encadeadas(byte[] esquerdo, byte[] direito)
+    {
+        return esquerdo[esquerdo.length - 1] <= direito[0];
+    }
 
-        public void definirLimiteThreads(int maxThreads)
+    private static byte[] concatenar(byte[] primeiro, byte[] segundo)
+    {
+        byte[] resultado = Arrays.copyOf(primeiro, primeiro.length + segundo.length);
+        System.arraycopy(segundo, 0, resultado, primeiro.length, segundo.length);
+        return resultado;
+    }
+
+    private static List<byte[]> particionar(byte[] dados, int partes)
+    {
+        List<byte[]> resultado = new ArrayList<>(partes);
+        int tamanho = dados.length;
+        int base = tamanho / partes;
+        int sobra = tamanho % partes;
+        int inicio = 0;
+
+        for (int i = 0; i < partes; i++)
         {
-            this.maxThreads = Math.max(1, maxThreads);
+            int incremento = base + (i < sobra ? 1 : 0);
+            int fim = inicio + incremento;
+            byte[] pedaco = Arrays.copyOfRange(dados, inicio, fim);
+            resultado.add(pedaco);
+            inicio = fim;
         }
 
-        @Override
-        public void run()
+        return resultado;
+    }
+
+    // Merge sort com buffers alternados: cada nivel intercala do vetor para o
+    // auxiliar ou vice-versa, conforme o destino pedido, e nada e copiado de
+    // volta. auxiliar[k - deslocamento] corresponde a vetor[k]. Faixas curtas
+    // sao ordenadas por insercao no proprio vetor.
+    static void mergeSort(byte[] vetor, byte[] auxiliar, int deslocamento, int inicio, int fim, boolean noAuxiliar)
+    {
+        int tamanho = fim - inicio;
+        if (tamanho <= LIMIAR_INSERCAO)
         {
-            this.resultado = mergeComThreads(this.esquerdo, this.direito, this.maxThreads);
+            insercao(vetor, inicio, fim);
+            if (noAuxiliar)
+                System.arraycopy(vetor, inicio, auxiliar, inicio - deslocamento, tamanho);
+            return;
         }
 
-        public byte[] getResultado()
+        int meio = (inicio + fim) >>> 1;
+        mergeSort(vetor, auxiliar, deslocamento, inicio, meio, !noAuxiliar);
+        mergeSort(vetor, auxiliar, deslocamento, meio, fim, !noAuxiliar);
+
+        if (noAuxiliar)
+            intercalarFaixas(vetor, inicio, meio, vetor, meio, fim, auxiliar, inicio - deslocamento);
+        else
+            intercalarFaixas(auxiliar, inicio - deslocamento, meio - deslocamento,
+                             auxiliar, meio - deslocamento, fim - deslocamento, vetor, inicio);
+    }
+
+    private static void insercao(byte[] vetor, int inicio, int fim)
+    {
+        for (int i = inicio + 1; i < fim; i++)
         {
-            return this.resultado == null ? new byte[0] : this.resultado;
+            byte valor = vetor[i];
+            int j = i - 1;
+            while (j >= inicio && vetor[j] > valor)
+            {
+                vetor[j + 1] = vetor[j];
+                j--;
+            }
+            vetor[j + 1] = valor;
         }
     }
 
-    public static byte[] merge(byte[] esquerdo, byte[] direito)
+    private static final class SortWorker implements Runnable
     {
-        byte[] a = esquerdo == null ? new byte[0] : esquerdo;
-        byte[] b = direito  == null ? new byte[0] : direito;
-        byte[] resultado = new byte[a.length + b.length];
+        private final byte[] valores;
 
-        int i = 0, j = 0, k = 0;
-        while (i < a.length && j < b.length)
+        private SortWorker(byte[] valores)
         {
-            if (a[i] <= b[j])
-                resultado[k++] = a[i++];
-            else
-                resultado[k++] = b[j++];
+            this.valores = valores;
         }
 
-        while (i < a.length)
-            resultado[k++] = a[i++];
+        @Override
+        public void run()
+        {
+            if (this.valores.length <= 1)
+                return;
 
-        while (j < b.length)
-            resultado[k++] = b[j++];
+            OrdenadorCorridas.ordenar(this.valores, 0, this.valores.length);
+        }
+    }
 
+    public static byte[] merge(byte[] esquerdo, byte[] direito)
+    {
+        byte[] a = esquerdo == null ? new byte[0] : esquerdo;
+        byte[] b = direito  == null ? new byte[0] : direito;
+        byte[] resultado = new byte[a.length + b.length];
+        intercalarFaixas(a, 0, a.length, b, 0, b.length, resultado, 0);
         return resultado;
     }
 
-    private static byte[] mergeComThreads(byte[] esquerdo, byte[] direito, int maxThreads)
+    static byte[] mergeComThreads(byte[] esquerdo, byte[] direito, int maxThreads)
     {
         byte[] a = esquerdo == null ? new byte[0] : esquerdo;
         byte[] b = direito  == null ? new byte[0] : direito;
@@ -278,6 +587,11 @@ public final class ParallelMergeSorter
         if (total == 0)
             return new byte[0];
 
+        if (a.length == 0 || b.length == 0 || encadeadas(a, b))
+            return concatenar(a, b);
+        if (b[b.length - 1] < a[0])
+            return concatenar(b, a);
+
         int threads = Math.max(1, maxThreads);
         if (threads == 1 || total < LIMIAR_MERGE_PARALELO)
             return merge(a, b);
@@ -326,10 +640,17 @@ public final class ParallelMergeSorter
         return destino;
     }
 
-    private static int coRank(int k, byte[] esquerdo, byte[] direito)
+    static int coRank(int k, byte[] esquerdo, byte[] direito)
     {
-        int m = esquerdo.length;
-        int n = direito.length;
+        return coRank(k, esquerdo, 0, esquerdo.length, direito, 0, direito.length);
+    }
+
+    private static int coRank(int k, byte[] esquerdo, int inicioEsquerdo, int fimEsquerdo, byte[] direito, int inicioDireito, int fimDireito)
+    {
+        int m = fimEsquerdo - inicioEsquerdo;
+        int n = fimDireito - inicioDireito;
+        int a = inicioEsquerdo;
+        int b = inicioDireito;
 
         int i = Math.min(k, m);
         int j = k - i;
@@ -338,14 +659,14 @@ public final class ParallelMergeSorter
 
         while (true)
         {
-            if (i > 0 && j < n && esquerdo[i - 1] > direito[j])
+            if (i > 0 && j < n && esquerdo[a + i - 1] > direito[b + j])
             {
                 iHigh = i - 1;
                 int delta = (i - iLow + 1) / 2;
                 i -= delta;
                 j = k - i;
             }
-            else if (j > 0 && i < m && direito[j - 1] >= esquerdo[i])
+            else if (j > 0 && i < m && direito[b + j - 1] >= esquerdo[a + i])
             {
                 iLow = i + 1;
                 int delta = (iHigh - i + 1) / 2;
@@ -385,23 +706,598 @@ public final class ParallelMergeSorter
         @Override
         public void run()
         {
-            int i = this.inicioEsquerdo;
-            int j = this.inicioDireito;
-            int k = this.inicioDestino;
+            intercalarFaixas(this.esquerdo, this.inicioEsquerdo, this.fimEsquerdo,
+                             this.direito, this.inicioDireito, this.fimDireito,
+                             this.destino, this.inicioDestino);
+        }
+    }
+
+    private static void intercalarFaixas(byte[] esquerdo, int inicioEsquerdo, int fimEsquerdo,
+                                         byte[] direito, int inicioDireito, int fimDireito,
+                                         byte[] destino, int inicioDestino)
+    {
+        if ((fimEsquerdo - inicioEsquerdo) + (fimDireito - inicioDireito) <= LIMIAR_SEM_DESVIO)
+        {
+            intercalarSemDesvio(esquerdo, inicioEsquerdo, fimEsquerdo, direito, inicioDireito, fimDireito, destino, inicioDestino);
+            return;
+        }
+
+        int i = inicioEsquerdo;
+        int j = inicioDireito;
+        int k = inicioDestino;
+
+        while (i < fimEsquerdo && j < fimDireito)
+        {
+            if (esquerdo[i] <= direito[j])
+                destino[k++] = esquerdo[i++];
+            else
+                destino[k++] = direito[j++];
+        }
+
+        System.arraycopy(esquerdo, i, destino, k, fimEsquerdo - i);
+        k += fimEsquerdo - i;
+        System.arraycopy(direito, j, destino, k, fimDireito - j);
+    }
+
+    // Sem desvio dependente dos dados: o menor dos dois e escolhido por
+    // mascara e os cursores avancam pelo bit de sinal da diferenca. Compensa
+    // nas faixas curtas do merge sort, onde os lados se alternam ao acaso;
+    // em faixas longas de byte os valores repetidos formam sequencias e o
+    // desvio comum e previsto quase sempre.
+    private static void intercalarSemDesvio(byte[] esquerdo, int inicioEsquerdo, int fimEsquerdo,
+                                            byte[] direito, int inicioDireito, int fimDireito,
+                                            byte[] destino, int inicioDestino)
+    {
+        int i = inicioEsquerdo;
+        int j = inicioDireito;
+        int k = inicioDestino;
+
+        while (i < fimEsquerdo && j < fimDireito)
+        {
+            int x = esquerdo[i];
+            int y = direito[j];
+            int direitoMenor = (y - x) >>> 31;
+            destino[k++] = (byte) (x + ((y - x) & -direitoMenor));
+            j += direitoMenor;
+            i += 1 - direitoMenor;
+        }
+
+        System.arraycopy(esquerdo, i, destino, k, fimEsquerdo - i);
+        k += fimEsquerdo - i;
+        System.arraycopy(direito, j, destino, k, fimDireito - j);
+    }
+
+    private static final class TarefaOrdenacao extends RecursiveAction
+    {
+        private final byte[] origem;
+        private final byte[] auxiliar;
+        private final int inicio;
+        private final int fim;
+        private final boolean destinoNoAuxiliar;
+
+        private TarefaOrdenacao(byte[] origem, byte[] auxiliar, int inicio, int fim, boolean destinoNoAuxiliar)
+        {
+            this.origem = origem;
+            this.auxiliar = auxiliar;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.destinoNoAuxiliar = destinoNoAuxiliar;
+        }
+
+        @Override
+        protected void compute()
+        {
+            int tamanho = this.fim - this.inicio;
+            if (tamanho <= LIMIAR_ORDENACAO_FJ)
+            {
+                mergeSort(this.origem, this.auxiliar, 0, this.inicio, this.fim, this.destinoNoAuxiliar);
+                return;
+            }
+
+            int meio = this.inicio + tamanho / 2;
+            invokeAll(new TarefaOrdenacao(this.origem, this.auxiliar, this.inicio, meio, !this.destinoNoAuxiliar),
+                      new TarefaOrdenacao(this.origem, this.auxiliar, meio, this.fim, !this.destinoNoAuxiliar));
+
+            byte[] fonte   = this.destinoNoAuxiliar ? this.origem : this.auxiliar;
+            byte[] destino = this.destinoNoAuxiliar ? this.auxiliar : this.origem;
+            new TarefaMerge(fonte, this.inicio, meio, fonte, meio, this.fim, destino, this.inicio).compute();
+        }
+    }
+
+    private static final class TarefaGrupo extends RecursiveAction
+    {
+        private final List<? extends RecursiveAction> tarefas;
+
+        private TarefaGrupo(List<? extends RecursiveAction> tarefas)
+        {
+            this.tarefas = tarefas;
+        }
+
+        @Override
+        protected void compute()
+        {
+            invokeAll(this.tarefas);
+        }
+    }
+
+    private static final class TarefaHistograma extends RecursiveAction
+    {
+        private final byte[] dados;
+        private final int inicio;
+        private final int fim;
+        private final long[] contagens = new long[VALORES_BYTE];
+
+        private TarefaHistograma(byte[] dados, int inicio, int fim)
+        {
+            this.dados = dados;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected void compute()
+        {
+            contarFaixa(this.dados, this.inicio, this.fim, this.contagens);
+        }
+    }
+
+    private static final class TarefaPreenchimento extends RecursiveAction
+    {
+        private final long[] acumulado;
+        private final byte[] destino;
+        private final int deslocamento;
+        private final int inicio;
+        private final int fim;
+
+        private TarefaPreenchimento(long[] acumulado, byte[] destino, int deslocamento, int inicio, int fim)
+        {
+            this.acumulado = acumulado;
+            this.destino = destino;
+            this.deslocamento = deslocamento;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected void compute()
+        {
+            preencherFaixa(this.acumulado, this.destino, this.deslocamento, this.inicio, this.fim);
+        }
+    }
+
+    private static final class TarefaOrdenacaoNoLugar extends RecursiveAction
+    {
+        private final byte[] vetor;
+        private final byte[] rascunho;
+        private final int[] limites;
+
+        private TarefaOrdenacaoNoLugar(byte[] vetor, byte[] rascunho, int[] limites)
+        {
+            this.vetor = vetor;
+            this.rascunho = rascunho;
+            this.limites = limites;
+        }
+
+        @Override
+        protected void compute()
+        {
+            int deslocamento = this.limites[0];
+            int[] atuais = this.limites;
+
+            List<RecursiveAction> ordenacoes = new ArrayList<>(atuais.length - 1);
+            for (int i = 0; i + 1 < atuais.length; i++)
+                ordenacoes.add(new TarefaOrdenacaoFaixa(this.vetor, this.rascunho, deslocamento, atuais[i], atuais[i + 1]));
+            invokeAll(ordenacoes);
+
+            byte[] fonte = this.vetor;
+            byte[] destino = this.rascunho;
+            int deslocamentoFonte = 0;
+            int deslocamentoDestino = deslocamento;
+
+            while (atuais.length > 2)
+            {
+                int pares = (atuais.length - 1) / 2;
+                int sobra = (atuais.length - 1) % 2;
+                int[] proximos = new int[pares + sobra + 1];
+                List<RecursiveAction> merges = new ArrayList<>(pares + sobra);
+
+                for (int p = 0; p < pares; p++)
+                {
+                    int inicio = atuais[2 * p];
+                    int meio = atuais[2 * p + 1];
+                    int fim = atuais[2 * p + 2];
+                    merges.add(new TarefaMerge(fonte, inicio - deslocamentoFonte, meio - deslocamentoFonte,
+                                               fonte, meio - deslocamentoFonte, fim - deslocamentoFonte,
+                                               destino, inicio - deslocamentoDestino));
+                    proximos[p] = inicio;
+                }
+
+                if (sobra == 1)
+                {
+                    int inicio = atuais[atuais.length - 2];
+                    int fim = atuais[atuais.length - 1];
+                    System.arraycopy(fonte, inicio - deslocamentoFonte, destino, inicio - deslocamentoDestino, fim - inicio);
+                    proximos[pares] = inicio;
+                }
+
+                proximos[proximos.length - 1] = atuais[atuais.length - 1];
+                invokeAll(merges);
+
+                atuais = proximos;
+                byte[] troca = fonte;
+                fonte = destino;
+                destino = troca;
+                int trocaDeslocamento = deslocamentoFonte;
+                deslocamentoFonte = deslocamentoDestino;
+                deslocamentoDestino = trocaDeslocamento;
+            }
+
+            if (fonte != this.vetor)
+                System.arraycopy(this.rascunho, 0, this.vetor, deslocamento, this.rascunho.length);
+        }
+    }
+
+    private static final class TarefaOrdenacaoFaixa extends RecursiveAction
+    {
+        private final byte[] vetor;
+        private final byte[] rascunho;
+        private final int deslocamento;
+        private final int inicio;
+        private final int fim;
+
+        private TarefaOrdenacaoFaixa(byte[] vetor, byte[] rascunho, int deslocamento, int inicio, int fim)
+        {
+            this.vetor = vetor;
+            this.rascunho = rascunho;
+            this.deslocamento = deslocamento;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected void compute()
+        {
+            mergeSort(this.vetor, this.rascunho, this.deslocamento, this.inicio, this.fim, false);
+        }
+    }
+
+    // Arvore de perdedores sobre as k faixas de um pedaco: cada no interno
+    // guarda o perdedor do seu confronto e arvore[0] o vencedor. Empates vao
+    // para a parte de menor indice. Como um vencedor continua vencendo
+    // enquanto repete o proprio valor, a sequencia de iguais e copiada de
+    // uma vez antes de refazer os confrontos.
+    private static final class TarefaIntercalacaoMultipla extends RecursiveAction
+    {
+        private static final int ESGOTADA = Integer.MAX_VALUE;
+
+        private final byte[][] partes;
+        private final int[] inicios;
+        private final int[] fins;
+        private final byte[] destino;
+        private final int inicioDestino;
+
+        private int[] cursores;
+        private int[] arvore;
+
+        private TarefaIntercalacaoMultipla(byte[][] partes, int[] inicios, int[] fins, byte[] destino, int inicioDestino)
+        {
+            this.partes = partes;
+            this.inicios = inicios;
+            this.fins = fins;
+            this.destino = destino;
+            this.inicioDestino = inicioDestino;
+        }
+
+        @Override
+        protected void compute()
+        {
+            int k = this.partes.length;
+            this.cursores = this.inicios.clone();
+            this.arvore = new int[k];
+
+            // A folha virtual k vence tudo e e empurrada para fora conforme
+            // as folhas reais entram.
+            Arrays.fill(this.arvore, k);
+            for (int folha = k - 1; folha >= 0; folha--)
+                this.ajustar(folha);
+
+            int escrita = this.inicioDestino;
+            for (;;)
+            {
+                int vencedora = this.arvore[0];
+                int cursor = this.cursores[vencedora];
+                if (cursor >= this.fins[vencedora])
+                    return;
+
+                byte[] parte = this.partes[vencedora];
+                int fimIguais = primeiroMaior(parte, cursor, this.fins[vencedora], parte[cursor]);
+                System.arraycopy(parte, cursor, this.destino, escrita, fimIguais - cursor);
+                escrita += fimIguais - cursor;
+                this.cursores[vencedora] = fimIguais;
+                this.ajustar(vencedora);
+            }
+        }
+
+        private int chave(int folha)
+        {
+            if (folha == this.partes.length)
+                return Integer.MIN_VALUE;
+            int cursor = this.cursores[folha];
+            return cursor < this.fins[folha] ? this.partes[folha][cursor] : ESGOTADA;
+        }
+
+        private void ajustar(int folha)
+        {
+            int k = this.partes.length;
+            int vencedora = folha;
+            for (int no = (folha + k) >>> 1; no > 0; no >>>= 1)
+            {
+                int adversaria = this.arvore[no];
+                int chaveVencedora = this.chave(vencedora);
+                int chaveAdversaria = this.chave(adversaria);
+                if (chaveAdversaria < chaveVencedora || (chaveAdversaria == chaveVencedora && adversaria < vencedora))
+                {
+                    this.arvore[no] = vencedora;
+                    vencedora = adversaria;
+                }
+            }
+            this.arvore[0] = vencedora;
+        }
+    }
+
+    private static final class TarefaMerge extends RecursiveAction
+    {
+        private final byte[] esquerdo;
+        private final int inicioEsquerdo;
+        private final int fimEsquerdo;
+        private final byte[] direito;
+        private final int inicioDireito;
+        private final int fimDireito;
+        private final byte[] destino;
+        private final int inicioDestino;
+
+        private TarefaMerge(byte[] esquerdo, int inicioEsquerdo, int fimEsquerdo,
+                            byte[] direito, int inicioDireito, int fimDireito,
+                            byte[] destino, int inicioDestino)
+        {
+            this.esquerdo = esquerdo;
+            this.inicioEsquerdo = inicioEsquerdo;
+            this.fimEsquerdo = fimEsquerdo;
+            this.direito = direito;
+            this.inicioDireito = inicioDireito;
+            this.fimDireito = fimDireito;
+            this.destino = destino;
+            this.inicioDestino = inicioDestino;
+        }
+
+        @Override
+        protected void compute()
+        {
+            int tamanhoEsquerdo = this.fimEsquerdo - this.inicioEsquerdo;
+            int tamanhoDireito = this.fimDireito - this.inicioDireito;
+            int total = tamanhoEsquerdo + tamanhoDireito;
+            if (tamanhoEsquerdo == 0 || tamanhoDireito == 0
+                || this.esquerdo[this.fimEsquerdo - 1] <= this.direito[this.inicioDireito])
+            {
+                System.arraycopy(this.esquerdo, this.inicioEsquerdo, this.destino, this.inicioDestino, tamanhoEsquerdo);
+                System.arraycopy(this.direito, this.inicioDireito, this.destino, this.inicioDestino + tamanhoEsquerdo, tamanhoDireito);
+                return;
+            }
+
+            if (total <= LIMIAR_MERGE_FJ)
+            {
+                intercalarFaixas(this.esquerdo, this.inicioEsquerdo, this.fimEsquerdo,
+                                 this.direito, this.inicioDireito, this.fimDireito,
+                                 this.destino, this.inicioDestino);
+                return;
+            }
+
+            int k = total / 2;
+            int i = coRank(k, this.esquerdo, this.inicioEsquerdo, this.fimEsquerdo,
+                           this.direito, this.inicioDireito, this.fimDireito);
+            int j = k - i;
+
+            invokeAll(new TarefaMerge(this.esquerdo, this.inicioEsquerdo, this.inicioEsquerdo + i,
+                                      this.direito, this.inicioDireito, this.inicioDireito + j,
+                                      this.destino, this.inicioDestino),
+                      new TarefaMerge(this.esquerdo, this.inicioEsquerdo + i, this.fimEsquerdo,
+                                      this.direito, this.inicioDireito + j, this.fimDireito,
+                                      this.destino, this.inicioDestino + k));
+        }
+    }
+
+    private static <T> void mergeSort(T[] vetor, T[] buffer, Comparator<? super T> cmp, int inicio, int fim, boolean noAuxiliar)
+    {
+        int tamanho = fim - inicio;
+        if (tamanho <= LIMIAR_INSERCAO)
+        {
+            insercao(vetor, cmp, inicio, fim);
+            if (noAuxiliar)
+                System.arraycopy(vetor, inicio, buffer, inicio, tamanho);
+            return;
+        }
 
-            while (i < this.fimEsquerdo && j < this.fimDireito)
+        int meio = (inicio + fim) >>> 1;
+        mergeSort(vetor, buffer, cmp, inicio, meio, !noAuxiliar);
+        mergeSort(vetor, buffer, cmp, meio, fim, !noAuxiliar);
+
+        if (noAuxiliar)
+            intercalarFaixas(vetor, inicio, meio, vetor, meio, fim, buffer, inicio, cmp);
+        else
+            intercalarFaixas(buffer, inicio, meio, buffer, meio, fim, vetor, inicio, cmp);
+    }
+
+    // Estavel: so desloca elementos estritamente maiores.
+    private static <T> void insercao(T[] vetor, Comparator<? super T> cmp, int inicio, int fim)
+    {
+        for (int i = inicio + 1; i < fim; i++)
+        {
+            T valor = vetor[i];
+            int j = i - 1;
+            while (j >= inicio && cmp.compare(vetor[j], valor) > 0)
             {
-                if (this.esquerdo[i] <= this.direito[j])
-                    this.destino[k++] = this.esquerdo[i++];
-                else
-                    this.destino[k++] = this.direito[j++];
+                vetor[j + 1] = vetor[j];
+                j--;
             }
+            vetor[j + 1] = valor;
+        }
+    }
 
-            while (i < this.fimEsquerdo)
-                this.destino[k++] = this.esquerdo[i++];
+    private static <T> void intercalarFaixas(T[] esquerdo, int inicioEsquerdo, int fimEsquerdo,
+                                             T[] direito, int inicioDireito, int fimDireito,
+                                             T[] destino, int inicioDestino, Comparator<? super T> cmp)
+    {
+        int i = inicioEsquerdo;
+        int j = inicioDireito;
+        int k = inicioDestino;
+
+        while (i < fimEsquerdo && j < fimDireito)
+        {
+            if (cmp.compare(esquerdo[i], direito[j]) <= 0)
+                destino[k++] = esquerdo[i++];
+            else
+                destino[k++] = direito[j++];
+        }
+
+        while (i < fimEsquerdo)
+            destino[k++] = esquerdo[i++];
+
+        while (j < fimDireito)
+            destino[k++] = direito[j++];
+    }
+
+    private static <T> int coRank(int k, T[] esquerdo, int inicioEsquerdo, int fimEsquerdo,
+                                  T[] direito, int inicioDireito, int fimDireito, Comparator<? super T> cmp)
+    {
+        int m = fimEsquerdo - inicioEsquerdo;
+        int n = fimDireito - inicioDireito;
+        int a = inicioEsquerdo;
+        int b = inicioDireito;
+
+        int i = Math.min(k, m);
+        int j = k - i;
+        int iLow = Math.max(0, k - n);
+        int iHigh = Math.min(k, m);
+
+        while (true)
+        {
+            if (i > 0 && j < n && cmp.compare(esquerdo[a + i - 1], direito[b + j]) > 0)
+            {
+                iHigh = i - 1;
+                int delta = (i - iLow + 1) / 2;
+                i -= delta;
+                j = k - i;
+            }
+            else if (j > 0 && i < m && cmp.compare(direito[b + j - 1], esquerdo[a + i]) >= 0)
+            {
+                iLow = i + 1;
+                int delta = (iHigh - i + 1) / 2;
+                i += delta;
+                j = k - i;
+            }
+            else
+            {
+                return i;
+            }
+        }
+    }
+
+    private static final class TarefaOrdenacaoObjetos<T> extends RecursiveAction
+    {
+        private final T[] origem;
+        private final T[] auxiliar;
+        private final Comparator<? super T> cmp;
+        private final int inicio;
+        private final int fim;
+        private final boolean destinoNoAuxiliar;
+        private final int limiarOrdenacao;
+        private final int limiarMerge;
+
+        private TarefaOrdenacaoObjetos(T[] origem, T[] auxiliar, Comparator<? super T> cmp, int inicio, int fim,
+                                       boolean destinoNoAuxiliar, int limiarOrdenacao, int limiarMerge)
+        {
+            this.origem = origem;
+            this.auxiliar = auxiliar;
+            this.cmp = cmp;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.destinoNoAuxiliar = destinoNoAuxiliar;
+            this.limiarOrdenacao = limiarOrdenacao;
+            this.limiarMerge = limiarMerge;
+        }
+
+        @Override
+        protected void compute()
+        {
+            int tamanho = this.fim - this.inicio;
+            if (tamanho <= this.limiarOrdenacao)
+            {
+                mergeSort(this.origem, this.auxiliar, this.cmp, this.inicio, this.fim, this.destinoNoAuxiliar);
+                return;
+            }
+
+            int meio = this.inicio + tamanho / 2;
+            invokeAll(new TarefaOrdenacaoObjetos<T>(this.origem, this.auxiliar, this.cmp, this.inicio, meio, !this.destinoNoAuxiliar, this.limiarOrdenacao, this.limiarMerge),
+                      new TarefaOrdenacaoObjetos<T>(this.origem, this.auxiliar, this.cmp, meio, this.fim, !this.destinoNoAuxiliar, this.limiarOrdenacao, this.limiarMerge));
+
+            T[] fonte   = this.destinoNoAuxiliar ? this.origem : this.auxiliar;
+            T[] destino = this.destinoNoAuxiliar ? this.auxiliar : this.origem;
+            new TarefaMergeObjetos<T>(fonte, this.inicio, meio, fonte, meio, this.fim, destino, this.inicio, this.cmp, this.limiarMerge).compute();
+        }
+    }
+
+    private static final class TarefaMergeObjetos<T> extends RecursiveAction
+    {
+        private final T[] esquerdo;
+        private final int inicioEsquerdo;
+        private final int fimEsquerdo;
+        private final T[] direito;
+        private final int inicioDireito;
+        private final int fimDireito;
+        private final T[] destino;
+        private final int inicioDestino;
+        private final Comparator<? super T> cmp;
+        private final int limiarMerge;
+
+        private TarefaMergeObjetos(T[] esquerdo, int inicioEsquerdo, int fimEsquerdo,
+                                   T[] direito, int inicioDireito, int fimDireito,
+                                   T[] destino, int inicioDestino, Comparator<? super T> cmp, int limiarMerge)
+        {
+            this.esquerdo = esquerdo;
+            this.inicioEsquerdo = inicioEsquerdo;
+            this.fimEsquerdo = fimEsquerdo;
+            this.direito = direito;
+            this.inicioDireito = inicioDireito;
+            this.fimDireito = fimDireito;
+            this.destino = destino;
+            this.inicioDestino = inicioDestino;
+            this.cmp = cmp;
+            this.limiarMerge = limiarMerge;
+        }
+
+        @Override
+        protected void compute()
+        {
+            int total = (this.fimEsquerdo - this.inicioEsquerdo) + (this.fimDireito - this.inicioDireito);
+            if (total <= this.limiarMerge)
+            {
+                intercalarFaixas(this.esquerdo, this.inicioEsquerdo, this.fimEsquerdo,
+                                 this.direito, this.inicioDireito, this.fimDireito,
+                                 this.destino, this.inicioDestino, this.cmp);
+                return;
+            }
 
-            while (j < this.fimDireito)
-                this.destino[k++] = this.direito[j++];
+            int k = total / 2;
+            int i = coRank(k, this.esquerdo, this.inicioEsquerdo, this.fimEsquerdo,
+                           this.direito, this.inicioDireito, this.fimDireito, this.cmp);
+            int j = k - i;
+
+            invokeAll(new TarefaMergeObjetos<T>(this.esquerdo, this.inicioEsquerdo, this.inicioEsquerdo + i,
+                                                this.direito, this.inicioDireito, this.inicioDireito + j,
+                                                this.destino, this.inicioDestino, this.cmp, this.limiarMerge),
+                      new TarefaMergeObjetos<T>(this.esquerdo, this.inicioEsquerdo + i, this.fimEsquerdo,
+                                                this.direito, this.inicioDireito + j, this.fimDireito,
+                                                this.destino, this.inicioDestino + k, this.cmp, this.limiarMerge));
         }
     }
 }
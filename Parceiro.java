@@ -9,10 +9,12 @@ public class Parceiro
     private Socket             conexao;
     private ObjectInputStream  receptor;
     private ObjectOutputStream transmissor;
+    private CanalBinario       canalBinario=null;
 
     private Comunicado proximoComunicado=null;
 
-    private Semaphore mutEx = new Semaphore (1,true);
+    private Semaphore mutEx      = new Semaphore (1,true);
+    private Semaphore mutExEnvio = new Semaphore (1,true);
 
     public Parceiro (Socket             conexao,
                      ObjectInputStream  receptor,
@@ -33,10 +35,49 @@ public class Parceiro
         this.transmissor = transmissor;
     }
 
+    public boolean solicitarModoBinario () throws Exception
+    {
+        if (this.conexao.getChannel()==null)
+            return false;
+
+        this.receba (new ComunicadoProtocolo (ComunicadoProtocolo.BINARIO));
+        Comunicado resposta = this.envie ();
+
+        if (!(resposta instanceof ComunicadoProtocolo))
+            throw new Exception ("Resposta inesperada na negociacao de protocolo");
+
+        if (!((ComunicadoProtocolo)resposta).isBinario())
+            return false;
+
+        this.ativarModoBinario ();
+        return true;
+    }
+
+    public void ativarModoBinario () throws Exception
+    {
+        if (this.conexao.getChannel()==null)
+            throw new Exception ("Conexao sem canal NIO");
+
+        this.canalBinario = new CanalBinario (this.conexao.getChannel());
+    }
+
+    public boolean isModoBinario ()
+    {
+        return this.canalBinario!=null;
+    }
+
     public void receba (Comunicado x) throws Exception
     {
+        this.mutExEnvio.acquireUninterruptibly();
         try
         {
+            if (this.canalBinario!=null)
+            {
+                this.canalBinario.escrever (x);
+                return;
+            }
+
+            this.transmissor.reset       ();
             this.transmissor.writeObject (x);
             this.transmissor.flush       ();
         }
@@ -44,6 +85,10 @@ public class Parceiro
         {
             throw new Exception ("Erro de transmissao");
         }
+        finally
+        {
+            this.mutExEnvio.release();
+        }
     }
 
     public Comunicado espie () throws Exception
@@ -51,7 +96,7 @@ public class Parceiro
         this.mutEx.acquireUninterruptibly();
         try
         {
-            if (this.proximoComunicado==null) this.proximoComunicado = (Comunicado)this.receptor.readObject();
+            if (this.proximoComunicado==null) this.proximoComunicado = this.leiaProximo();
             return this.proximoComunicado;
         } catch (Exception erro) {
             throw new Exception ("Erro de recepcao");
@@ -66,7 +111,7 @@ public class Parceiro
         this.mutEx.acquireUninterruptibly();
         try
         {
-            if (this.proximoComunicado==null) this.proximoComunicado = (Comunicado)this.receptor.readObject();
+            if (this.proximoComunicado==null) this.proximoComunicado = this.leiaProximo();
             Comunicado ret         = this.proximoComunicado;
             this.proximoComunicado = null;
             return ret;
@@ -80,6 +125,14 @@ public class Parceiro
         }
     }
 
+    private Comunicado leiaProximo () throws Exception
+    {
+        if (this.canalBinario!=null)
+            return this.canalBinario.ler ();
+
+        return (Comunicado)this.receptor.readObject();
+    }
+
     public void adeus () throws Exception
     {
         try
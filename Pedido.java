@@ -5,11 +5,16 @@ public class Pedido extends Comunicado
     private final byte[] numeros;
 
     public Pedido(byte[] numeros)
+    {
+        this(numeros, true);
+    }
+
+    Pedido(byte[] numeros, boolean copiar)
     {
         if (numeros == null)
             throw new IllegalArgumentException("Vetor ausente");
 
-        this.numeros = Arrays.copyOf(numeros, numeros.length);
+        this.numeros = copiar ? Arrays.copyOf(numeros, numeros.length) : numeros;
     }
 
     public byte[] getNumeros()
@@ -17,6 +22,11 @@ public class Pedido extends Comunicado
         return Arrays.copyOf(this.numeros, this.numeros.length);
     }
 
+    byte[] getNumerosSemCopia()
+    {
+        return this.numeros;
+    }
+
     public int tamanho()
     {
         return this.numeros.length;
@@ -24,10 +34,14 @@ public class Pedido extends Comunicado
 
     public byte[] ordenar()
     {
-        int maxThreads = Runtime.getRuntime().availableProcessors();
-        if (maxThreads <= 0)
-            maxThreads = 1;
+        byte[] copia = Arrays.copyOf(this.numeros, this.numeros.length);
+        ParallelMergeSorter.sortAutoInPlace(copia, 0, copia.length, ParallelMergeSorter.getPool().getParallelism());
+        return copia;
+    }
 
-        return ParallelMergeSorter.sort(this.numeros, maxThreads);
+    byte[] ordenarNoLugar()
+    {
+        ParallelMergeSorter.sortAutoInPlace(this.numeros, 0, this.numeros.length, ParallelMergeSorter.getPool().getParallelism());
+        return this.numeros;
     }
 }
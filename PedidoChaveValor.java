@@ -0,0 +1,45 @@
+public class PedidoChaveValor extends ComunicadoChaveValor
+{
+    public PedidoChaveValor(long[] chaves)
+    {
+        this(PERMUTACAO, chaves.clone(), null, null, 0);
+    }
+
+    public PedidoChaveValor(long[] chaves, int[] valores)
+    {
+        this(INDICES, chaves.clone(), valores.clone(), null, 0);
+    }
+
+    public PedidoChaveValor(long[] chaves, byte[] registros, int largura)
+    {
+        this(REGISTROS, chaves.clone(), null, registros.clone(), largura);
+    }
+
+    PedidoChaveValor(byte modo, long[] chaves, int[] valores, byte[] registros, int largura)
+    {
+        super(modo, chaves, valores, registros, largura);
+    }
+
+    // Ordena os proprios vetores do pedido, que nao sao mais usados depois da resposta.
+    RespostaChaveValor ordenarNoLugar()
+    {
+        long[] chaves = this.getChavesSemCopia();
+        switch (this.getModo())
+        {
+            case PERMUTACAO:
+            {
+                int[] permutacao = OrdenadorChaveValor.identidade(chaves.length);
+                OrdenadorChaveValor.sort(chaves, permutacao);
+                return new RespostaChaveValor(PERMUTACAO, chaves, permutacao, null, 0);
+            }
+
+            case INDICES:
+                OrdenadorChaveValor.sort(chaves, this.getValoresSemCopia());
+                return new RespostaChaveValor(INDICES, chaves, this.getValoresSemCopia(), null, 0);
+
+            default:
+                OrdenadorChaveValor.sort(chaves, this.getRegistrosSemCopia(), this.getLargura());
+                return new RespostaChaveValor(REGISTROS, chaves, null, this.getRegistrosSemCopia(), this.getLargura());
+        }
+    }
+}
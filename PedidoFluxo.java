@@ -0,0 +1,24 @@
+public class PedidoFluxo extends Comunicado
+{
+    private final int tamanho;
+    private final boolean histograma;
+
+    public PedidoFluxo(int tamanho, boolean histograma)
+    {
+        if (tamanho < 0)
+            throw new IllegalArgumentException("Tamanho invalido");
+
+        this.tamanho = tamanho;
+        this.histograma = histograma;
+    }
+
+    public int tamanho()
+    {
+        return this.tamanho;
+    }
+
+    public boolean isHistograma()
+    {
+        return this.histograma;
+    }
+}
@@ -0,0 +1,39 @@
+import java.util.Arrays;
+
+public class PedidoHistograma extends Comunicado
+{
+    private final byte[] numeros;
+
+    public PedidoHistograma(byte[] numeros)
+    {
+        this(numeros, true);
+    }
+
+    PedidoHistograma(byte[] numeros, boolean copiar)
+    {
+        if (numeros == null)
+            throw new IllegalArgumentException("Vetor ausente");
+
+        this.numeros = copiar ? Arrays.copyOf(numeros, numeros.length) : numeros;
+    }
+
+    public byte[] getNumeros()
+    {
+        return Arrays.copyOf(this.numeros, this.numeros.length);
+    }
+
+    byte[] getNumerosSemCopia()
+    {
+        return this.numeros;
+    }
+
+    public int tamanho()
+    {
+        return this.numeros.length;
+    }
+
+    public long[] contar()
+    {
+        return ParallelMergeSorter.histograma(this.numeros, 0, this.numeros.length, ParallelMergeSorter.getPool().getParallelism());
+    }
+}
@@ -0,0 +1,52 @@
+public class PedidoPrimitivo extends Comunicado
+{
+    private final Object numeros;
+
+    public PedidoPrimitivo(short[] numeros)  { this(numeros, true); }
+    public PedidoPrimitivo(int[] numeros)    { this(numeros, true); }
+    public PedidoPrimitivo(long[] numeros)   { this(numeros, true); }
+    public PedidoPrimitivo(float[] numeros)  { this(numeros, true); }
+    public PedidoPrimitivo(double[] numeros) { this(numeros, true); }
+
+    PedidoPrimitivo(Object numeros, boolean copiar)
+    {
+        if (numeros == null)
+            throw new IllegalArgumentException("Vetor ausente");
+
+        TipoPrimitivo.de(numeros);
+        this.numeros = copiar ? TipoPrimitivo.copiar(numeros) : numeros;
+    }
+
+    public byte getTipo()
+    {
+        return TipoPrimitivo.de(this.numeros);
+    }
+
+    public Object getNumeros()
+    {
+        return TipoPrimitivo.copiar(this.numeros);
+    }
+
+    Object getNumerosSemCopia()
+    {
+        return this.numeros;
+    }
+
+    public int tamanho()
+    {
+        return TipoPrimitivo.tamanho(this.numeros);
+    }
+
+    public Object ordenar()
+    {
+        Object copia = TipoPrimitivo.copiar(this.numeros);
+        TipoPrimitivo.ordenarNoLugar(copia);
+        return copia;
+    }
+
+    Object ordenarNoLugar()
+    {
+        TipoPrimitivo.ordenarNoLugar(this.numeros);
+        return this.numeros;
+    }
+}
@@ -1,23 +1,35 @@
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
 
 public class AceitadoraDeConexao extends Thread
 {
     private ServerSocket        pedido;
     private ArrayList<Parceiro> usuarios;
+    private ExecutorService     conversas;
 
     public AceitadoraDeConexao
     (String porta, ArrayList<Parceiro> usuarios)
     throws Exception
+    {
+        this (porta, usuarios, ModoExecucao.novoExecutorConversas (ModoExecucao.PLATAFORMA));
+    }
+
+    public AceitadoraDeConexao
+    (String porta, ArrayList<Parceiro> usuarios, ExecutorService conversas)
+    throws Exception
     {
         if (porta==null)
             throw new Exception ("Porta ausente");
 
         try
         {
-            this.pedido =
-            new ServerSocket (Integer.parseInt(porta));
+            ServerSocketChannel canal = ServerSocketChannel.open ();
+            canal.bind (new InetSocketAddress (Integer.parseInt(porta)));
+            this.pedido = canal.socket ();
         }
         catch (Exception  erro)
         {
@@ -28,6 +40,11 @@ public class AceitadoraDeConexao extends Thread
             throw new Exception ("Usuarios ausentes");
 
         this.usuarios = usuarios;
+
+        if (conversas==null)
+            throw new Exception ("Executor de conversas ausente");
+
+        this.conversas = conversas;
     }
 
     public void run ()
@@ -47,12 +64,20 @@ public class AceitadoraDeConexao extends Thread
             SupervisoraDeConexao supervisoraDeConexao=null;
             try
             {
+                conexao.setTcpNoDelay (true);
                 supervisoraDeConexao =
-                new SupervisoraDeConexao (conexao, usuarios);
+                new SupervisoraDeConexao (conexao, usuarios, this.conversas);
+                this.conversas.execute (supervisoraDeConexao);
             }
             catch (Exception erro)
-            {}
-            supervisoraDeConexao.start();
+            {
+                try
+                {
+                    conexao.close ();
+                }
+                catch (Exception falha)
+                {}
+            }
         }
     }
 }
@@ -0,0 +1,97 @@
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class AcumuladorFluxo
+{
+    private final PedidoFluxo pedido;
+    private final long[] contagens = new long[ParallelMergeSorter.VALORES_BYTE];
+    private int recebidos;
+
+    public AcumuladorFluxo(PedidoFluxo pedido)
+    {
+        if (pedido == null)
+            throw new IllegalArgumentException("Pedido de fluxo ausente");
+
+        this.pedido = pedido;
+    }
+
+    public PedidoFluxo getPedido()
+    {
+        return this.pedido;
+    }
+
+    public boolean isCompleto()
+    {
+        synchronized (this)
+        {
+            return this.recebidos >= this.pedido.tamanho();
+        }
+    }
+
+    public boolean acumular(Fragmento fragmento) throws Exception
+    {
+        byte[] dados = fragmento.getDadosSemCopia();
+        long[] parcial = ParallelMergeSorter.histograma(dados, 0, dados.length, ParallelMergeSorter.getPool().getParallelism());
+
+        synchronized (this)
+        {
+            if (this.recebidos + (long) dados.length > this.pedido.tamanho())
+                throw new Exception("Fluxo excedeu o tamanho anunciado");
+
+            for (int v = 0; v < parcial.length; v++)
+                this.contagens[v] += parcial[v];
+
+            this.recebidos += dados.length;
+            return this.recebidos == this.pedido.tamanho();
+        }
+    }
+
+    // Os fragmentos da resposta sao gerados um a um, conforme quem envia
+    // consome o iterador, para que o vetor ordenado nunca exista inteiro.
+    public Iterator<Comunicado> respostas()
+    {
+        final long id = this.pedido.getId();
+        final int tamanho = this.pedido.tamanho();
+        final long[] contagens;
+
+        synchronized (this)
+        {
+            contagens = this.contagens.clone();
+        }
+
+        if (this.pedido.isHistograma())
+        {
+            RespostaHistograma resposta = new RespostaHistograma(contagens);
+            resposta.definirId(id);
+            return Collections.<Comunicado>singletonList(resposta).iterator();
+        }
+
+        return new Iterator<Comunicado>()
+        {
+            private int enviados;
+
+            @Override
+            public boolean hasNext()
+            {
+                return this.enviados < tamanho;
+            }
+
+            @Override
+            public Comunicado next()
+            {
+                if (!this.hasNext())
+                    throw new NoSuchElementException();
+
+                int quantidade = Math.min(Fragmento.TAMANHO_PADRAO, tamanho - this.enviados);
+                byte[] dados = new byte[quantidade];
+                ParallelMergeSorter.expandirHistograma(contagens, this.enviados, dados, 0, quantidade);
+                this.enviados += quantidade;
+
+                Fragmento fragmento = new Fragmento(dados, false);
+                fragmento.definirId(id);
+                return fragmento;
+            }
+        };
+    }
+}
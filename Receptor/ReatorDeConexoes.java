@@ -0,0 +1,667 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ReatorDeConexoes extends Thread
+{
+    private static final int LIMITE_NEGOCIACAO   = 1 << 16;
+    private static final int PEDIDOS_POR_CONEXAO = 8;
+    private static final int PARTES_POR_ESCRITA  = 16;
+
+    private final ServerSocketChannel servidor;
+    private final Selector            seletor;
+    private final ThreadPoolExecutor  ordenadores;
+    private final long                limiteBytesPendentes;
+    private final AtomicLong          bytesPendentes = new AtomicLong();
+    private final ConcurrentLinkedQueue<Conexao> prontas = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer          descarte = ByteBuffer.allocate(CanalBinario.TAMANHO_BLOCO);
+    private final ByteBuffer[]        reunidas = new ByteBuffer[PARTES_POR_ESCRITA];
+
+    public ReatorDeConexoes(String porta, int threadsOrdenacao, int capacidadeFila, long limiteBytesPendentes)
+    throws Exception
+    {
+        if (porta == null)
+            throw new Exception("Porta ausente");
+
+        try
+        {
+            this.servidor = ServerSocketChannel.open();
+            this.servidor.bind(new InetSocketAddress(Integer.parseInt(porta)));
+            this.servidor.configureBlocking(false);
+            this.seletor = Selector.open();
+            this.servidor.register(this.seletor, SelectionKey.OP_ACCEPT);
+        }
+        catch (Exception erro)
+        {
+            throw new Exception("Porta invalida");
+        }
+
+        int threads = Math.max(1, threadsOrdenacao);
+        this.ordenadores = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                                                  new ArrayBlockingQueue<Runnable>(Math.max(1, capacidadeFila)));
+        this.limiteBytesPendentes = Math.max(1L, limiteBytesPendentes);
+    }
+
+    public void run()
+    {
+        for(;;)
+        {
+            try
+            {
+                this.seletor.select();
+            }
+            catch (IOException erro)
+            {
+                System.err.println("[R] Falha no seletor: " + erro.getMessage());
+                return;
+            }
+
+            Conexao pronta;
+            while ((pronta = this.prontas.poll()) != null)
+                this.atualizarInteresse(pronta);
+
+            Iterator<SelectionKey> chaves = this.seletor.selectedKeys().iterator();
+            while (chaves.hasNext())
+            {
+                SelectionKey chave = chaves.next();
+                chaves.remove();
+
+                if (!chave.isValid())
+                    continue;
+
+                if (chave.isAcceptable())
+                {
+                    this.aceitar();
+                    continue;
+                }
+
+                Conexao conexao = (Conexao) chave.attachment();
+                try
+                {
+                    if (chave.isReadable())
+                        this.ler(conexao);
+
+                    if (chave.isValid() && chave.isWritable())
+                        this.escrever(conexao);
+                }
+                catch (Exception erro)
+                {
+                    this.fechar(conexao);
+                }
+            }
+        }
+    }
+
+    private void aceitar()
+    {
+        SocketChannel canal = null;
+        try
+        {
+            canal = this.servidor.accept();
+            if (canal == null)
+                return;
+
+            canal.configureBlocking(false);
+            canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Conexao conexao = new Conexao(canal);
+            conexao.chave = canal.register(this.seletor, SelectionKey.OP_READ | SelectionKey.OP_WRITE, conexao);
+            this.enfileirar(conexao, ByteBuffer.wrap(CABECALHO_OBJETOS));
+        }
+        catch (IOException erro)
+        {
+            try
+            {
+                if (canal != null)
+                    canal.close();
+            }
+            catch (IOException falha)
+            {}
+        }
+    }
+
+    private void ler(Conexao conexao) throws Exception
+    {
+        if (!conexao.negociada)
+        {
+            this.lerNegociacao(conexao);
+            return;
+        }
+
+        while (!conexao.saturada() && !conexao.encerrarAposEscrita && conexao.chave.isValid())
+        {
+            if (conexao.corpo == null && conexao.descartar == 0)
+            {
+                if (conexao.canal.read(conexao.cabecalho) < 0)
+                    throw new EOFException();
+                if (conexao.cabecalho.hasRemaining())
+                    return;
+
+                conexao.cabecalho.flip();
+                conexao.tipo = conexao.cabecalho.get();
+                conexao.id = conexao.cabecalho.getLong();
+                int tamanho = conexao.cabecalho.getInt();
+                conexao.cabecalho.clear();
+
+                if (tamanho < 0)
+                    throw new IOException("Tamanho de quadro invalido: " + tamanho);
+
+                if (tamanho > 0 && this.bytesPendentes.addAndGet(tamanho) > this.limiteBytesPendentes)
+                {
+                    this.bytesPendentes.addAndGet(-tamanho);
+                    conexao.descartar = tamanho;
+                    continue;
+                }
+
+                conexao.reservaLeitura = tamanho;
+                conexao.corpo = new byte[tamanho];
+                conexao.lidos = 0;
+            }
+
+            if (conexao.descartar > 0)
+            {
+                this.descarte.clear();
+                this.descarte.limit(Math.min(this.descarte.capacity(), conexao.descartar));
+                int lidos = conexao.canal.read(this.descarte);
+                if (lidos < 0)
+                    throw new EOFException();
+                if (lidos == 0)
+                    return;
+
+                conexao.descartar -= lidos;
+                if (conexao.descartar == 0)
+                {
+                    // Como em despachar: so o primeiro fragmento descartado
+                    // de um fluxo gera recusa.
+                    if (conexao.tipo == CanalBinario.TIPO_PEDIDO_FLUXO)
+                        conexao.fluxosRecusados.add(conexao.id);
+                    if (conexao.tipo != CanalBinario.TIPO_FRAGMENTO || conexao.fluxosRecusados.add(conexao.id))
+                        this.recusar(conexao, conexao.id, "Receptor sobrecarregado");
+                }
+                continue;
+            }
+
+            while (conexao.lidos < conexao.corpo.length)
+            {
+                int quantidade = Math.min(CanalBinario.TAMANHO_BLOCO, conexao.corpo.length - conexao.lidos);
+                int lidos = conexao.canal.read(ByteBuffer.wrap(conexao.corpo, conexao.lidos, quantidade));
+                if (lidos < 0)
+                    throw new EOFException();
+                if (lidos == 0)
+                    return;
+                conexao.lidos += lidos;
+            }
+
+            byte[] corpo = conexao.corpo;
+            long reserva = conexao.reservaLeitura;
+            conexao.corpo = null;
+            conexao.reservaLeitura = 0;
+            this.despachar(conexao, CanalBinario.decodificar(conexao.tipo, conexao.id, corpo), reserva);
+        }
+    }
+
+    private void lerNegociacao(Conexao conexao) throws Exception
+    {
+        this.descarte.clear();
+        int lidos = conexao.canal.read(this.descarte);
+        if (lidos < 0)
+            throw new EOFException();
+
+        conexao.negociacao.write(this.descarte.array(), 0, lidos);
+        if (conexao.negociacao.size() > LIMITE_NEGOCIACAO)
+            throw new IOException("Negociacao grande demais");
+
+        Object recebido;
+        try (ObjectInputStream entrada = new ObjectInputStream(new ByteArrayInputStream(conexao.negociacao.toByteArray())))
+        {
+            recebido = entrada.readObject();
+        }
+        catch (EOFException incompleto)
+        {
+            return;
+        }
+
+        conexao.negociacao = null;
+        if (recebido instanceof ComunicadoProtocolo && ((ComunicadoProtocolo) recebido).isBinario())
+        {
+            this.enfileirar(conexao, ByteBuffer.wrap(serializarSemCabecalho(new ComunicadoProtocolo(ComunicadoProtocolo.BINARIO))));
+            conexao.negociada = true;
+        }
+        else
+        {
+            System.out.println("[R] Cliente sem protocolo binario recusado pelo reator.");
+            this.enfileirar(conexao, ByteBuffer.wrap(serializarSemCabecalho(new ComunicadoProtocolo(ComunicadoProtocolo.OBJETOS))));
+            conexao.encerrarAposEscrita = true;
+        }
+
+        this.atualizarInteresse(conexao);
+    }
+
+    // A reserva do quadro dura enquanto o corpo estiver em uso: ate o fim da
+    // TarefaConexao que o processa, ou ate aqui quando nenhuma e criada.
+    private void despachar(Conexao conexao, Comunicado comunicado, long reserva) throws Exception
+    {
+        if (comunicado instanceof ComunicadoEncerramento)
+        {
+            this.liberar(reserva);
+            System.out.println("[R] Cliente solicitou encerramento da conexao.");
+            conexao.encerrarAposEscrita = true;
+            this.atualizarInteresse(conexao);
+            return;
+        }
+
+        if (comunicado instanceof PedidoFluxo)
+        {
+            PedidoFluxo pedido = (PedidoFluxo) comunicado;
+            System.out.println("[R] Pedido em fluxo recebido. Elementos: " + pedido.tamanho());
+
+            conexao.fluxosRecusados.remove(pedido.getId());
+            AcumuladorFluxo acumulador = new AcumuladorFluxo(pedido);
+            if (acumulador.isCompleto())
+            {
+                this.submeter(conexao, comunicado, acumulador, reserva);
+                return;
+            }
+
+            this.liberar(reserva);
+            conexao.fluxos.put(pedido.getId(), acumulador);
+            return;
+        }
+
+        if (comunicado instanceof Fragmento)
+        {
+            // Um fluxo ja recusado descarta o resto dos fragmentos em silencio:
+            // o Distribuidor recebe uma unica recusa por fluxo.
+            AcumuladorFluxo acumulador = conexao.fluxos.get(comunicado.getId());
+            if (acumulador == null)
+            {
+                this.liberar(reserva);
+                if (conexao.fluxosRecusados.add(comunicado.getId()))
+                    this.recusar(conexao, comunicado.getId(), "Fragmento fora de um fluxo");
+            }
+            else
+                this.submeter(conexao, comunicado, acumulador, reserva);
+            return;
+        }
+
+        this.submeter(conexao, comunicado, null, reserva);
+    }
+
+    private void submeter(Conexao conexao, Comunicado comunicado, AcumuladorFluxo acumulador, long reserva) throws Exception
+    {
+        conexao.emAndamento.incrementAndGet();
+        this.atualizarInteresse(conexao);
+
+        try
+        {
+            this.ordenadores.execute(new TarefaConexao(conexao, comunicado, acumulador, reserva));
+        }
+        catch (RejectedExecutionException erro)
+        {
+            this.liberar(reserva);
+            conexao.emAndamento.decrementAndGet();
+            this.recusar(conexao, comunicado.getId(), "Fila de ordenacao cheia");
+        }
+    }
+
+    private void recusar(Conexao conexao, long id, String motivo) throws IOException
+    {
+        System.out.println("[R] Pedido " + id + " recusado: " + motivo);
+        conexao.abandonarFluxo(id);
+
+        ComunicadoRecusa recusa = new ComunicadoRecusa(motivo);
+        recusa.definirId(id);
+        this.enfileirar(conexao, CanalBinario.codificar(recusa));
+        this.atualizarInteresse(conexao);
+    }
+
+    // Respostas em fluxo so geram o proximo fragmento quando a saida esvazia,
+    // entao cada conexao tem no maximo um fragmento dele na fila. Cada
+    // escrita reune varias partes da fila (cabecalho e corpo de um quadro,
+    // ou quadros pequenos seguidos) ate TAMANHO_BLOCO bytes.
+    private void escrever(Conexao conexao) throws IOException
+    {
+        for (;;)
+        {
+            int partes = 0;
+            int reunidos = 0;
+            for (ByteBuffer parte : conexao.saida)
+            {
+                if (partes == this.reunidas.length || reunidos == CanalBinario.TAMANHO_BLOCO)
+                    break;
+                ByteBuffer fatia = parte.duplicate();
+                fatia.limit(fatia.position() + Math.min(CanalBinario.TAMANHO_BLOCO - reunidos, parte.remaining()));
+                this.reunidas[partes++] = fatia;
+                reunidos += fatia.remaining();
+            }
+
+            if (partes == 0)
+            {
+                if (this.gerar(conexao))
+                    continue;
+                break;
+            }
+
+            long escritos = conexao.canal.write(this.reunidas, 0, partes);
+            Arrays.fill(this.reunidas, 0, partes, null);
+            conexao.bytesSaida.addAndGet(-escritos);
+            this.bytesPendentes.addAndGet(-escritos);
+
+            long restantes = escritos;
+            ByteBuffer parte;
+            while ((parte = conexao.saida.peek()) != null && parte.remaining() <= restantes)
+            {
+                restantes -= parte.remaining();
+                conexao.saida.poll();
+            }
+            if (restantes > 0)
+                parte.position(parte.position() + (int) restantes);
+
+            if (escritos < reunidos)
+                return;
+        }
+
+        if (conexao.emAndamento.get() > 0)
+        {
+            this.atualizarInteresse(conexao);
+            return;
+        }
+
+        if (conexao.encerrarAposEscrita)
+        {
+            this.fechar(conexao);
+            return;
+        }
+
+        this.atualizarInteresse(conexao);
+    }
+
+    private void atualizarInteresse(Conexao conexao)
+    {
+        if (conexao.chave == null || !conexao.chave.isValid())
+            return;
+
+        int interesse = 0;
+        if (!conexao.saturada() && !conexao.encerrarAposEscrita)
+            interesse |= SelectionKey.OP_READ;
+        if (!conexao.saida.isEmpty() || !conexao.geradores.isEmpty()
+            || (conexao.encerrarAposEscrita && conexao.emAndamento.get() == 0))
+            interesse |= SelectionKey.OP_WRITE;
+
+        conexao.chave.interestOps(interesse);
+    }
+
+    private void liberar(long reserva)
+    {
+        if (reserva > 0)
+            this.bytesPendentes.addAndGet(-reserva);
+    }
+
+    private boolean gerar(Conexao conexao) throws IOException
+    {
+        Iterator<Comunicado> gerador;
+        while ((gerador = conexao.geradores.peek()) != null)
+        {
+            if (gerador.hasNext())
+            {
+                this.enfileirar(conexao, CanalBinario.codificar(gerador.next()));
+                return true;
+            }
+            conexao.geradores.poll();
+        }
+        return false;
+    }
+
+    // A saida enfileirada conta no limite de bytes pendentes ate ser escrita.
+    // Uma conexao fechada devolve o que tinha na fila, inclusive o que uma
+    // TarefaConexao enfileirar depois do fechamento.
+    private void enfileirar(Conexao conexao, ByteBuffer... partes)
+    {
+        long bytes = 0;
+        for (ByteBuffer parte : partes)
+            bytes += parte.remaining();
+
+        this.bytesPendentes.addAndGet(bytes);
+        conexao.bytesSaida.addAndGet(bytes);
+        conexao.enfileirar(partes);
+        if (conexao.fechada)
+            this.liberar(conexao.bytesSaida.getAndSet(0));
+    }
+
+    private void fechar(Conexao conexao)
+    {
+        this.liberar(conexao.reservaLeitura);
+        conexao.reservaLeitura = 0;
+        conexao.corpo = null;
+        conexao.fechada = true;
+        conexao.geradores.clear();
+        conexao.saida.clear();
+        this.liberar(conexao.bytesSaida.getAndSet(0));
+        if (conexao.chave != null)
+            conexao.chave.cancel();
+
+        try
+        {
+            conexao.canal.close();
+        }
+        catch (IOException erro)
+        {}
+    }
+
+    private void concluir(Conexao conexao, List<Comunicado> respostas, Iterator<Comunicado> gerador, long reserva)
+    {
+        this.liberar(reserva);
+
+        try
+        {
+            List<ByteBuffer> partes = new ArrayList<>();
+            for (Comunicado resposta : respostas)
+                partes.addAll(Arrays.asList(CanalBinario.codificar(resposta)));
+            this.enfileirar(conexao, partes.toArray(new ByteBuffer[0]));
+            if (gerador != null && !conexao.fechada)
+                conexao.geradores.add(gerador);
+        }
+        catch (IOException erro)
+        {
+            conexao.encerrarAposEscrita = true;
+        }
+
+        conexao.emAndamento.decrementAndGet();
+        this.prontas.add(conexao);
+        this.seletor.wakeup();
+    }
+
+    private static byte[] serializarSemCabecalho(Comunicado comunicado) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream saida = new ObjectOutputStream(bytes);
+        saida.flush();
+        int cabecalho = bytes.size();
+        saida.writeObject(comunicado);
+        saida.flush();
+        return Arrays.copyOfRange(bytes.toByteArray(), cabecalho, bytes.size());
+    }
+
+    private static final byte[] CABECALHO_OBJETOS;
+
+    static
+    {
+        try
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            new ObjectOutputStream(bytes).flush();
+            CABECALHO_OBJETOS = bytes.toByteArray();
+        }
+        catch (IOException erro)
+        {
+            throw new ExceptionInInitializerError(erro);
+        }
+    }
+
+    private final class TarefaConexao implements Runnable
+    {
+        private final Conexao conexao;
+        private final Comunicado comunicado;
+        private final AcumuladorFluxo acumulador;
+        private final long reserva;
+        private Iterator<Comunicado> gerador;
+
+        private TarefaConexao(Conexao conexao, Comunicado comunicado, AcumuladorFluxo acumulador, long reserva)
+        {
+            this.conexao = conexao;
+            this.comunicado = comunicado;
+            this.acumulador = acumulador;
+            this.reserva = reserva;
+        }
+
+        @Override
+        public void run()
+        {
+            List<Comunicado> respostas = new ArrayList<>();
+            try
+            {
+                this.processar(respostas);
+            }
+            catch (Exception erro)
+            {
+                this.conexao.abandonarFluxo(this.comunicado.getId());
+                ComunicadoRecusa recusa = new ComunicadoRecusa("Falha no processamento: " + erro.getMessage());
+                recusa.definirId(this.comunicado.getId());
+                respostas.clear();
+                respostas.add(recusa);
+                this.gerador = null;
+            }
+            concluir(this.conexao, respostas, this.gerador, this.reserva);
+        }
+
+        private void processar(List<Comunicado> respostas) throws Exception
+        {
+            Comunicado resposta;
+
+            if (this.comunicado instanceof Pedido)
+            {
+                Pedido pedido = (Pedido) this.comunicado;
+                System.out.println("[R] Pedido " + pedido.getId() + " recebido. Elementos: " + pedido.tamanho());
+
+                long inicio = System.currentTimeMillis();
+                byte[] vetorOrdenado = pedido.ordenarNoLugar();
+                long fim = System.currentTimeMillis();
+
+                System.out.println("[R] Ordenacao concluida em " + (fim - inicio) + " ms. Enviando resposta...");
+                resposta = new Resposta(vetorOrdenado, false);
+            }
+            else if (this.comunicado instanceof PedidoHistograma)
+            {
+                PedidoHistograma pedido = (PedidoHistograma) this.comunicado;
+                System.out.println("[R] Pedido de histograma " + pedido.getId() + " recebido. Elementos: " + pedido.tamanho());
+                resposta = new RespostaHistograma(pedido.contar());
+            }
+            else if (this.comunicado instanceof PedidoPrimitivo)
+            {
+                PedidoPrimitivo pedido = (PedidoPrimitivo) this.comunicado;
+                System.out.println("[R] Pedido primitivo " + pedido.getId() + " recebido. Elementos: " + pedido.tamanho());
+                resposta = new RespostaPrimitiva(pedido.ordenarNoLugar(), false);
+            }
+            else if (this.comunicado instanceof PedidoChaveValor)
+            {
+                PedidoChaveValor pedido = (PedidoChaveValor) this.comunicado;
+                System.out.println("[R] Pedido de chave e valor " + pedido.getId() + " recebido. Elementos: " + pedido.tamanho());
+                resposta = pedido.ordenarNoLugar();
+            }
+            else if (this.acumulador != null)
+            {
+                boolean completo = this.comunicado instanceof Fragmento
+                                 ? this.acumulador.acumular((Fragmento) this.comunicado)
+                                 : this.acumulador.isCompleto();
+
+                if (completo)
+                {
+                    this.conexao.fluxos.remove(this.comunicado.getId());
+                    this.gerador = this.acumulador.respostas();
+                }
+                return;
+            }
+            else
+            {
+                resposta = new ComunicadoRecusa("Comunicado nao suportado pelo reator");
+            }
+
+            resposta.definirId(this.comunicado.getId());
+            respostas.add(resposta);
+        }
+    }
+
+    private static final class Conexao
+    {
+        private final SocketChannel canal;
+        private final ByteBuffer cabecalho = ByteBuffer.allocate(CanalBinario.TAMANHO_CABECALHO);
+        private final ConcurrentLinkedQueue<ByteBuffer> saida = new ConcurrentLinkedQueue<>();
+        private final ConcurrentHashMap<Long, AcumuladorFluxo> fluxos = new ConcurrentHashMap<>();
+        private final Set<Long> fluxosRecusados = ConcurrentHashMap.newKeySet();
+        private final ConcurrentLinkedQueue<Iterator<Comunicado>> geradores = new ConcurrentLinkedQueue<>();
+        private final AtomicLong bytesSaida = new AtomicLong();
+        private final AtomicInteger emAndamento = new AtomicInteger();
+        private SelectionKey chave;
+        private ByteArrayOutputStream negociacao = new ByteArrayOutputStream();
+        private boolean negociada;
+        private volatile boolean encerrarAposEscrita;
+        private volatile boolean fechada;
+        private byte tipo;
+        private long id;
+        private byte[] corpo;
+        private int lidos;
+        private int descartar;
+        private long reservaLeitura;
+
+        private Conexao(SocketChannel canal)
+        {
+            this.canal = canal;
+        }
+
+        private boolean saturada()
+        {
+            return this.emAndamento.get() >= PEDIDOS_POR_CONEXAO;
+        }
+
+        // A marca fica ate o id ser reaproveitado por outro fluxo ou a
+        // conexao fechar; e adicionada antes da remocao para que nenhum
+        // fragmento encontre o fluxo ausente e sem marca.
+        private void abandonarFluxo(long id)
+        {
+            if (!this.fluxos.containsKey(id))
+                return;
+            this.fluxosRecusados.add(id);
+            this.fluxos.remove(id);
+        }
+
+        private void enfileirar(ByteBuffer[] partes)
+        {
+            synchronized (this.saida)
+            {
+                this.saida.addAll(Arrays.asList(partes));
+            }
+        }
+    }
+}
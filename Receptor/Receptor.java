@@ -1,22 +1,85 @@
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
 
 public class Receptor
 {
     public static String PORTA_PADRAO = "12345";
 
+    public static final int ORDENACOES_SIMULTANEAS = 2;
+    public static final int CAPACIDADE_FILA        = 32;
+
     public static void main (String[] args)
     {
-        if (args.length>1)
+        if (args.length>3)
         {
-            System.err.println ("Uso esperado: java Receptor [PORTA]\n");
+            System.err.println ("Uso esperado: java Receptor [PORTA] [THREADS] [classico|virtual|nio]\n");
             return;
         }
 
         String porta=Receptor.PORTA_PADRAO;
 
-        if (args.length==1)
+        if (args.length>=1)
             porta = args[0];
 
+        if (args.length>=2)
+        {
+            try
+            {
+                ParallelMergeSorter.configurarPool (Integer.parseInt(args[1]));
+            }
+            catch (NumberFormatException erro)
+            {
+                System.err.println ("Quantidade de threads invalida!\n");
+                return;
+            }
+        }
+
+        if (args.length==3 && args[2].equalsIgnoreCase("nio"))
+        {
+            try
+            {
+                ReatorDeConexoes reator =
+                new ReatorDeConexoes (porta,
+                                      Receptor.ORDENACOES_SIMULTANEAS,
+                                      Receptor.CAPACIDADE_FILA,
+                                      Runtime.getRuntime().maxMemory() / 2);
+                reator.start();
+            }
+            catch (Exception erro)
+            {
+                System.err.println ("Escolha uma porta apropriada e liberada para uso!\n");
+                return;
+            }
+
+            System.out.println("[R] Reator NIO ativo na porta " + porta + ". Aguarde pedidos.");
+            return;
+        }
+
+        String modo = ModoExecucao.PLATAFORMA;
+        if (args.length==3 && args[2].equalsIgnoreCase("virtual"))
+        {
+            if (ModoExecucao.virtualDisponivel())
+                modo = ModoExecucao.VIRTUAL;
+            else
+                System.err.println ("[R] Threads virtuais exigem Java 21 ou superior; usando threads de plataforma.");
+        }
+        else if (args.length==3 && !args[2].equalsIgnoreCase("classico"))
+        {
+            System.err.println ("Modo invalido: " + args[2] + "\n");
+            return;
+        }
+
+        ExecutorService conversas=null;
+        try
+        {
+            conversas = ModoExecucao.novoExecutorConversas (modo);
+        }
+        catch (Exception erro)
+        {
+            System.err.println (erro.getMessage() + "\n");
+            return;
+        }
+
         ArrayList<Parceiro> usuarios =
         new ArrayList<Parceiro> ();
 
@@ -24,7 +87,7 @@ public class Receptor
         try
         {
             aceitadoraDeConexao =
-            new AceitadoraDeConexao (porta, usuarios);
+            new AceitadoraDeConexao (porta, usuarios, conversas);
             aceitadoraDeConexao.start();
         }
         catch (Exception erro)
@@ -33,6 +96,6 @@ public class Receptor
             return;
         }
 
-        System.out.println("[R] Servidor ativo na porta " + porta + ". Aguarde pedidos.");
+        System.out.println("[R] Servidor ativo na porta " + porta + " (threads " + modo + "). Aguarde pedidos.");
     }
 }
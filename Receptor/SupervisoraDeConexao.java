@@ -2,15 +2,34 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.Socket;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 
-public class SupervisoraDeConexao extends Thread
+public class SupervisoraDeConexao implements Runnable
 {
+    private static final int PEDIDOS_POR_CONEXAO = 8;
+
     private Parceiro            usuario;
     private Socket              conexao;
     private ArrayList<Parceiro> usuarios;
+    private ExecutorService     atendimentos;
+
+    private final List<Future<?>>            emAndamento = new ArrayList<>();
+    private final Map<Long, AcumuladorFluxo> fluxos      = new HashMap<>();
+    private final Semaphore                  vagas       = new Semaphore(PEDIDOS_POR_CONEXAO);
 
+    // Os atendimentos rodam no executor das conversas, feito para esperar
+    // em E/S, e nao no pool fork/join, que fica so com as ordenacoes. A
+    // leitura de novos pedidos para quando a conexao ja tem
+    // PEDIDOS_POR_CONEXAO em andamento.
     public SupervisoraDeConexao
-    (Socket conexao, ArrayList<Parceiro> usuarios)
+    (Socket conexao, ArrayList<Parceiro> usuarios, ExecutorService atendimentos)
     throws Exception
     {
         if (conexao==null)
@@ -19,8 +38,12 @@ public class SupervisoraDeConexao extends Thread
         if (usuarios==null)
             throw new Exception ("Usuarios ausentes");
 
-        this.conexao  = conexao;
-        this.usuarios = usuarios;
+        if (atendimentos==null)
+            throw new Exception ("Executor de atendimentos ausente");
+
+        this.conexao      = conexao;
+        this.usuarios     = usuarios;
+        this.atendimentos = atendimentos;
     }
 
     public void run ()
@@ -79,21 +102,59 @@ public class SupervisoraDeConexao extends Thread
 
                 if (comunicado==null)
                     return;
-                else if (comunicado instanceof Pedido)
+                else if (comunicado instanceof Pedido || comunicado instanceof PedidoHistograma || comunicado instanceof PedidoPrimitivo || comunicado instanceof PedidoChaveValor)
+                {
+                    this.vagas.acquire();
+                    this.podarAtendimentos();
+                    try
+                    {
+                        this.emAndamento.add(this.atendimentos.submit(new Atendimento(comunicado)));
+                    }
+                    catch (RejectedExecutionException erro)
+                    {
+                        this.vagas.release();
+                        throw erro;
+                    }
+                }
+                else if (comunicado instanceof PedidoFluxo)
+                {
+                    PedidoFluxo pedido = (PedidoFluxo) comunicado;
+                    System.out.println("[R] Pedido em fluxo recebido. Elementos: " + pedido.tamanho());
+
+                    AcumuladorFluxo acumulador = new AcumuladorFluxo(pedido);
+                    if (acumulador.isCompleto())
+                        this.responder(acumulador.respostas());
+                    else
+                        this.fluxos.put(pedido.getId(), acumulador);
+                }
+                else if (comunicado instanceof Fragmento)
                 {
-                    Pedido pedido = (Pedido) comunicado;
-                    System.out.println("[R] Pedido recebido. Elementos: " + pedido.tamanho());
+                    AcumuladorFluxo acumulador = this.fluxos.get(comunicado.getId());
+                    if (acumulador==null)
+                        throw new Exception ("Fragmento fora de um fluxo");
 
-                    long inicio = System.currentTimeMillis();
-                    byte[] vetorOrdenado = pedido.ordenar();
-                    long fim = System.currentTimeMillis();
+                    if (acumulador.acumular((Fragmento) comunicado))
+                    {
+                        this.fluxos.remove(comunicado.getId());
+                        System.out.println("[R] Fluxo contado. Enviando resposta...");
+                        this.responder(acumulador.respostas());
+                    }
+                }
+                else if (comunicado instanceof ComunicadoProtocolo)
+                {
+                    boolean binario = ((ComunicadoProtocolo) comunicado).isBinario() &&
+                                      this.conexao.getChannel() != null;
 
-                    System.out.println("[R] Ordenacao concluida em " + (fim - inicio) + " ms. Enviando resposta...");
-                    Resposta resposta = new Resposta(vetorOrdenado);
-                    this.usuario.receba(resposta);
+                    this.usuario.receba(new ComunicadoProtocolo(binario ? ComunicadoProtocolo.BINARIO : ComunicadoProtocolo.OBJETOS));
+                    if (binario)
+                    {
+                        this.usuario.ativarModoBinario();
+                        System.out.println("[R] Protocolo binario ativado.");
+                    }
                 }
                 else if (comunicado instanceof ComunicadoEncerramento)
                 {
+                    this.aguardarAtendimentos();
                     synchronized (this.usuarios)
                     {
                         this.usuarios.remove (this.usuario);
@@ -117,4 +178,99 @@ public class SupervisoraDeConexao extends Thread
             return;
         }
     }
+
+    private void responder (Iterator<Comunicado> respostas) throws Exception
+    {
+        while (respostas.hasNext())
+            this.usuario.receba (respostas.next());
+    }
+
+    private void podarAtendimentos ()
+    {
+        Iterator<Future<?>> atendimentos = this.emAndamento.iterator();
+        while (atendimentos.hasNext())
+        {
+            if (atendimentos.next().isDone())
+                atendimentos.remove();
+        }
+    }
+
+    private void aguardarAtendimentos ()
+    {
+        for (Future<?> atendimento : this.emAndamento)
+        {
+            try
+            {
+                atendimento.get();
+            }
+            catch (Exception erro)
+            {}
+        }
+        this.emAndamento.clear();
+    }
+
+    private class Atendimento implements Runnable
+    {
+        private final Comunicado pedido;
+
+        private Atendimento (Comunicado pedido)
+        {
+            this.pedido = pedido;
+        }
+
+        public void run ()
+        {
+            try
+            {
+                Comunicado resposta;
+                long inicio = System.currentTimeMillis();
+
+                if (this.pedido instanceof Pedido)
+                {
+                    Pedido pedido = (Pedido) this.pedido;
+                    System.out.println("[R] Pedido " + pedido.getId() + " recebido. Elementos: " + pedido.tamanho());
+                    resposta = new Resposta(pedido.ordenarNoLugar(), false);
+                }
+                else if (this.pedido instanceof PedidoPrimitivo)
+                {
+                    PedidoPrimitivo pedido = (PedidoPrimitivo) this.pedido;
+                    System.out.println("[R] Pedido primitivo " + pedido.getId() + " recebido. Elementos: " + pedido.tamanho());
+                    resposta = new RespostaPrimitiva(pedido.ordenarNoLugar(), false);
+                }
+                else if (this.pedido instanceof PedidoChaveValor)
+                {
+                    PedidoChaveValor pedido = (PedidoChaveValor) this.pedido;
+                    System.out.println("[R] Pedido de chave e valor " + pedido.getId() + " recebido. Elementos: " + pedido.tamanho());
+                    resposta = pedido.ordenarNoLugar();
+                }
+                else
+                {
+                    PedidoHistograma pedido = (PedidoHistograma) this.pedido;
+                    System.out.println("[R] Pedido de histograma " + pedido.getId() + " recebido. Elementos: " + pedido.tamanho());
+                    resposta = new RespostaHistograma(pedido.contar());
+                }
+
+                long fim = System.currentTimeMillis();
+                System.out.println("[R] Pedido " + this.pedido.getId() + " concluido em " + (fim - inicio) + " ms. Enviando resposta...");
+
+                resposta.definirId(this.pedido.getId());
+                usuario.receba(resposta);
+            }
+            catch (Exception erro)
+            {
+                try
+                {
+                    ComunicadoRecusa recusa = new ComunicadoRecusa("Falha no processamento: " + erro.getMessage());
+                    recusa.definirId(this.pedido.getId());
+                    usuario.receba(recusa);
+                }
+                catch (Exception falha)
+                {}
+            }
+            finally
+            {
+                vagas.release();
+            }
+        }
+    }
 }
@@ -0,0 +1,63 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+// Uma linha CSV por execucao de trabalho, com tempos em milissegundos, para
+// ser consumida por scripts de medicao em vez de lida na tela.
+public final class RelatorioLote implements AutoCloseable
+{
+    public static final String CABECALHO = "trabalho,repeticao,motor,elementos,leitura_ms,ordenacao_ms,gravacao_ms,verificado,erro";
+
+    private final PrintStream saida;
+    private final boolean propria;
+
+    private RelatorioLote(PrintStream saida, boolean propria)
+    {
+        this.saida = saida;
+        this.propria = propria;
+        this.saida.println(CABECALHO);
+        this.saida.flush();
+    }
+
+    // Sem destino, ou com destino "-", as linhas vao para a saida padrao.
+    public static RelatorioLote abrir(String destino) throws IOException
+    {
+        if (destino == null || destino.equals("-"))
+            return new RelatorioLote(System.out, false);
+
+        return new RelatorioLote(new PrintStream(Files.newOutputStream(Paths.get(destino)), false, StandardCharsets.UTF_8.name()), true);
+    }
+
+    public synchronized void registrar(String trabalho, int repeticao, String motor, long elementos,
+                                       long leituraNs, long ordenacaoNs, long gravacaoNs, String verificado, String erro)
+    {
+        this.saida.println(campo(trabalho) + ',' + repeticao + ',' + campo(motor) + ',' + elementos + ','
+                           + milissegundos(leituraNs) + ',' + milissegundos(ordenacaoNs) + ','
+                           + milissegundos(gravacaoNs) + ',' + verificado + ',' + campo(erro));
+        this.saida.flush();
+    }
+
+    private static String milissegundos(long nanos)
+    {
+        return nanos < 0 ? "" : String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    private static String campo(String valor)
+    {
+        if (valor == null)
+            return "";
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0)
+            return valor;
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public void close()
+    {
+        if (this.propria)
+            this.saida.close();
+    }
+}
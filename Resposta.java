@@ -5,15 +5,25 @@ public class Resposta extends Comunicado
     private final byte[] vetorOrdenado;
 
     public Resposta(byte[] vetorOrdenado)
+    {
+        this(vetorOrdenado, true);
+    }
+
+    Resposta(byte[] vetorOrdenado, boolean copiar)
     {
         if (vetorOrdenado == null)
             throw new IllegalArgumentException("Vetor ordenado ausente");
 
-        this.vetorOrdenado = Arrays.copyOf(vetorOrdenado, vetorOrdenado.length);
+        this.vetorOrdenado = copiar ? Arrays.copyOf(vetorOrdenado, vetorOrdenado.length) : vetorOrdenado;
     }
 
     public byte[] getVetor()
     {
         return Arrays.copyOf(this.vetorOrdenado, this.vetorOrdenado.length);
     }
+
+    byte[] getVetorSemCopia()
+    {
+        return this.vetorOrdenado;
+    }
 }
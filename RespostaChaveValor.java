@@ -0,0 +1,12 @@
+public class RespostaChaveValor extends ComunicadoChaveValor
+{
+    RespostaChaveValor(byte modo, long[] chaves, int[] valores, byte[] registros, int largura)
+    {
+        super(modo, chaves, valores, registros, largura);
+    }
+
+    public int[] getPermutacao()
+    {
+        return this.getModo() == PERMUTACAO ? this.getValores() : null;
+    }
+}
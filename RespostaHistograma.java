@@ -0,0 +1,30 @@
+import java.util.Arrays;
+
+public class RespostaHistograma extends Comunicado
+{
+    private final long[] contagens;
+
+    public RespostaHistograma(long[] contagens)
+    {
+        if (contagens == null)
+            throw new IllegalArgumentException("Histograma ausente");
+
+        if (contagens.length != ParallelMergeSorter.VALORES_BYTE)
+            throw new IllegalArgumentException("Histograma deve ter " + ParallelMergeSorter.VALORES_BYTE + " posicoes");
+
+        this.contagens = Arrays.copyOf(contagens, contagens.length);
+    }
+
+    public long[] getContagens()
+    {
+        return Arrays.copyOf(this.contagens, this.contagens.length);
+    }
+
+    public long total()
+    {
+        long total = 0;
+        for (long contagem : this.contagens)
+            total += contagem;
+        return total;
+    }
+}
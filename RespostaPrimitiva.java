@@ -0,0 +1,34 @@
+public class RespostaPrimitiva extends Comunicado
+{
+    private final Object vetorOrdenado;
+
+    public RespostaPrimitiva(short[] vetorOrdenado)  { this(vetorOrdenado, true); }
+    public RespostaPrimitiva(int[] vetorOrdenado)    { this(vetorOrdenado, true); }
+    public RespostaPrimitiva(long[] vetorOrdenado)   { this(vetorOrdenado, true); }
+    public RespostaPrimitiva(float[] vetorOrdenado)  { this(vetorOrdenado, true); }
+    public RespostaPrimitiva(double[] vetorOrdenado) { this(vetorOrdenado, true); }
+
+    RespostaPrimitiva(Object vetorOrdenado, boolean copiar)
+    {
+        if (vetorOrdenado == null)
+            throw new IllegalArgumentException("Vetor ordenado ausente");
+
+        TipoPrimitivo.de(vetorOrdenado);
+        this.vetorOrdenado = copiar ? TipoPrimitivo.copiar(vetorOrdenado) : vetorOrdenado;
+    }
+
+    public byte getTipo()
+    {
+        return TipoPrimitivo.de(this.vetorOrdenado);
+    }
+
+    public Object getVetor()
+    {
+        return TipoPrimitivo.copiar(this.vetorOrdenado);
+    }
+
+    Object getVetorSemCopia()
+    {
+        return this.vetorOrdenado;
+    }
+}
@@ -1,12 +1,25 @@
-import java.io.BufferedWriter;
-import java.io.FileWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
 public class OrdenacaoSequencial
 {
     public static void main(String[] args)
     {
+        if (Opcoes.ehLote(args))
+        {
+            executarLote(args);
+            return;
+        }
+
+        if (args.length > 0)
+        {
+            ordenarArquivo(args);
+            return;
+        }
+
         try
         {
             System.out.print("Informe o tamanho do vetor para ordenacao sequencial: ");
@@ -27,7 +40,7 @@ public class OrdenacaoSequencial
             long fim = System.currentTimeMillis();
             System.out.println("Tempo gasto na ordenacao sequencial: " + (fim - inicio) + " ms");
 
-            System.out.print("Nome do arquivo texto para salvar o resultado: ");
+            System.out.print("Nome do arquivo para salvar o resultado (.txt, .bin ou .rle): ");
             salvarEmArquivo(ordenado, Teclado.getUmString());
         }
         catch (Exception erro)
@@ -36,6 +49,172 @@ public class OrdenacaoSequencial
         }
     }
 
+    // Ordenacao externa: o arquivo de entrada pode ser maior que o heap.
+    private static void ordenarArquivo(String[] args)
+    {
+        if (args.length < 2 || args.length > 3)
+        {
+            System.err.println("Uso esperado: java OrdenacaoSequencial [ENTRADA SAIDA [MB_POR_SEGMENTO]]");
+            System.err.println("          ou: java OrdenacaoSequencial chave=valor ... (motor, threads, entrada, tamanho, saida,");
+            System.err.println("              segmento_mb, repeticoes, verificar, nome, lote, config, resultados)");
+            return;
+        }
+
+        try
+        {
+            int segmento = args.length == 3 ? (int) Math.min(Integer.MAX_VALUE - 8, Long.parseLong(args[2]) << 20)
+                                             : OrdenacaoExterna.segmentoPadrao();
+
+            long inicio = System.currentTimeMillis();
+            OrdenacaoExterna.ordenar(Paths.get(args[0]), Paths.get(args[1]), segmento, null);
+            long fim = System.currentTimeMillis();
+            System.out.println("Ordenacao externa concluida em " + (fim - inicio) + " ms. Resultado em " + args[1]);
+        }
+        catch (Exception erro)
+        {
+            System.err.println("Falha durante a ordenacao externa: " + erro.getMessage());
+        }
+    }
+
+    // Motores: sequencial, paralelo (merge sort fork/join), adaptativo
+    // (corridas naturais), amostragem (sample sort), contagem, auto (escolha
+    // por tamanho) e externa (arquivo binario de entrada e saida).
+    private static void executarLote(String[] args)
+    {
+        Opcoes base;
+        List<Opcoes> trabalhos;
+        try
+        {
+            base = Opcoes.deArgumentos(args);
+            trabalhos = base.trabalhos();
+            if (base.tem("threads"))
+                ParallelMergeSorter.configurarPool(base.inteiro("threads", 1));
+        }
+        catch (Exception erro)
+        {
+            System.err.println("Configuracao invalida: " + erro.getMessage());
+            return;
+        }
+
+        try (RelatorioLote relatorio = RelatorioLote.abrir(base.texto("resultados", null)))
+        {
+            System.setOut(System.err);
+            for (int t = 0; t < trabalhos.size(); t++)
+                executarTrabalho(trabalhos.get(t), t + 1, relatorio);
+        }
+        catch (Exception erro)
+        {
+            System.err.println("Falha no lote: " + erro.getMessage());
+        }
+    }
+
+    private static void executarTrabalho(Opcoes trabalho, int numero, RelatorioLote relatorio)
+    {
+        String nome = trabalho.texto("nome", String.valueOf(numero));
+        String motor = trabalho.texto("motor", "sequencial").toLowerCase();
+        int repeticao = 1;
+        long leitura = -1;
+        FonteVetor fonte = null;
+        try
+        {
+            int repeticoes = Math.max(1, trabalho.inteiro("repeticoes", 1));
+            int threads = ParallelMergeSorter.getPool().getParallelism();
+
+            if (motor.equals("externa"))
+            {
+                String entrada = trabalho.texto("entrada", null);
+                String saida = trabalho.texto("saida", null);
+                if (entrada == null || saida == null)
+                    throw new Exception("O motor externa exige entrada= e saida=");
+                int segmento = trabalho.tem("segmento_mb") ? (int) Math.min(Integer.MAX_VALUE - 8, (long) trabalho.inteiro("segmento_mb", 0) << 20)
+                                                           : OrdenacaoExterna.segmentoPadrao();
+
+                for (; repeticao <= repeticoes; repeticao++)
+                {
+                    long inicio = System.nanoTime();
+                    OrdenacaoExterna.ordenar(Paths.get(entrada), Paths.get(saida), segmento, null);
+                    long ordenacao = System.nanoTime() - inicio;
+                    relatorio.registrar(nome, repeticao, motor, Files.size(Paths.get(entrada)), -1, ordenacao, -1, "", null);
+                }
+                return;
+            }
+
+            long inicio = System.nanoTime();
+            fonte = trabalho.fonte();
+            leitura = System.nanoTime() - inicio;
+
+            for (; repeticao <= repeticoes; repeticao++)
+            {
+                byte[] vetor = fonte.lerTudo();
+                inicio = System.nanoTime();
+                byte[] ordenado = ordenar(vetor, motor, threads);
+                long ordenacao = System.nanoTime() - inicio;
+
+                String verificado = "";
+                if (trabalho.sim("verificar", false))
+                    verificado = Arrays.equals(ordenado, ParallelMergeSorter.sortSequential(fonte.lerTudo())) ? "sim" : "nao";
+
+                long gravacao = -1;
+                String saida = trabalho.texto("saida", null);
+                if (saida != null && repeticao == repeticoes)
+                {
+                    inicio = System.nanoTime();
+                    GravadorVetor.gravar(ordenado, saida);
+                    gravacao = System.nanoTime() - inicio;
+                }
+
+                relatorio.registrar(nome, repeticao, motor, ordenado.length, leitura, ordenacao, gravacao, verificado, null);
+            }
+        }
+        catch (Exception erro)
+        {
+            System.err.println("Trabalho " + nome + " falhou: " + erro.getMessage());
+            relatorio.registrar(nome, repeticao, motor, fonte == null ? 0 : fonte.tamanho(), leitura, -1, -1, "", String.valueOf(erro.getMessage()));
+        }
+        finally
+        {
+            if (fonte != null)
+            {
+                try
+                {
+                    fonte.close();
+                }
+                catch (Exception erro)
+                {
+                    System.err.println("Erro ao fechar a entrada: " + erro.getMessage());
+                }
+            }
+        }
+    }
+
+    private static byte[] ordenar(byte[] vetor, String motor, int threads) throws Exception
+    {
+        switch (motor)
+        {
+            case "sequencial":
+                return ParallelMergeSorter.sortSequential(vetor);
+
+            case "paralelo":
+                return ParallelMergeSorter.sortForkJoin(vetor);
+
+            case "adaptativo":
+                return ParallelMergeSorter.sort(vetor, threads);
+
+            case "amostragem":
+                return ParallelMergeSorter.sortSample(vetor, threads);
+
+            case "contagem":
+                return ParallelMergeSorter.sortCounting(vetor, threads);
+
+            case "auto":
+                ParallelMergeSorter.sortAutoInPlace(vetor, 0, vetor.length, threads);
+                return vetor;
+
+            default:
+                throw new Exception("Motor desconhecido: " + motor);
+        }
+    }
+
     private static byte[] gerarVetor(int tamanho)
     {
         byte[] vetor = new byte[tamanho];
@@ -49,13 +228,9 @@ public class OrdenacaoSequencial
         if (nomeArquivo == null || nomeArquivo.trim().isEmpty())
             nomeArquivo = "sequencial-ordenado.txt";
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(nomeArquivo)))
+        try
         {
-            for (byte valor : vetor)
-            {
-                writer.write(Byte.toString(valor));
-                writer.newLine();
-            }
+            GravadorVetor.gravar(vetor, nomeArquivo);
             System.out.println("Resultado salvo em " + nomeArquivo);
         }
         catch (Exception erro)
@@ -0,0 +1,125 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public final class TipoPrimitivo
+{
+    public static final byte SHORT  = 1;
+    public static final byte INT    = 2;
+    public static final byte LONG   = 3;
+    public static final byte FLOAT  = 4;
+    public static final byte DOUBLE = 5;
+
+    private TipoPrimitivo() {}
+
+    public static byte de(Object vetor)
+    {
+        if (vetor instanceof short[])  return SHORT;
+        if (vetor instanceof int[])    return INT;
+        if (vetor instanceof long[])   return LONG;
+        if (vetor instanceof float[])  return FLOAT;
+        if (vetor instanceof double[]) return DOUBLE;
+        throw new IllegalArgumentException("Vetor de tipo nao suportado: " + (vetor == null ? "null" : vetor.getClass().getSimpleName()));
+    }
+
+    public static int bytesPorElemento(byte tipo)
+    {
+        switch (tipo)
+        {
+            case SHORT:  return Short.BYTES;
+            case INT:    return Integer.BYTES;
+            case LONG:   return Long.BYTES;
+            case FLOAT:  return Float.BYTES;
+            case DOUBLE: return Double.BYTES;
+            default:     throw new IllegalArgumentException("Tipo primitivo desconhecido: " + tipo);
+        }
+    }
+
+    public static int tamanho(Object vetor)
+    {
+        switch (de(vetor))
+        {
+            case SHORT:  return ((short[]) vetor).length;
+            case INT:    return ((int[]) vetor).length;
+            case LONG:   return ((long[]) vetor).length;
+            case FLOAT:  return ((float[]) vetor).length;
+            default:     return ((double[]) vetor).length;
+        }
+    }
+
+    static Object copiar(Object vetor)
+    {
+        switch (de(vetor))
+        {
+            case SHORT:  return ((short[]) vetor).clone();
+            case INT:    return ((int[]) vetor).clone();
+            case LONG:   return ((long[]) vetor).clone();
+            case FLOAT:  return ((float[]) vetor).clone();
+            default:     return ((double[]) vetor).clone();
+        }
+    }
+
+    static void ordenarNoLugar(Object vetor)
+    {
+        switch (de(vetor))
+        {
+            case SHORT:  { short[]  v = (short[]) vetor;  OrdenadorShort.sortInPlace(v, 0, v.length);  break; }
+            case INT:    { int[]    v = (int[]) vetor;    OrdenadorInt.sortInPlace(v, 0, v.length);    break; }
+            case LONG:   { long[]   v = (long[]) vetor;   OrdenadorLong.sortInPlace(v, 0, v.length);   break; }
+            case FLOAT:  { float[]  v = (float[]) vetor;  OrdenadorFloat.sortInPlace(v, 0, v.length);  break; }
+            default:     { double[] v = (double[]) vetor; OrdenadorDouble.sortInPlace(v, 0, v.length); break; }
+        }
+    }
+
+    // Corpo binario: um byte com o tipo seguido dos elementos em big-endian.
+    static ByteBuffer codificar(Object vetor) throws IOException
+    {
+        byte tipo = de(vetor);
+        long bytes = 1L + (long) tamanho(vetor) * bytesPorElemento(tipo);
+        if (bytes > Integer.MAX_VALUE)
+            throw new IOException("Vetor grande demais para um unico quadro: " + bytes + " bytes");
+
+        ByteBuffer corpo = ByteBuffer.allocate((int) bytes);
+        corpo.put(tipo);
+        switch (tipo)
+        {
+            case SHORT:  corpo.asShortBuffer().put((short[]) vetor);   break;
+            case INT:    corpo.asIntBuffer().put((int[]) vetor);       break;
+            case LONG:   corpo.asLongBuffer().put((long[]) vetor);     break;
+            case FLOAT:  corpo.asFloatBuffer().put((float[]) vetor);   break;
+            default:     corpo.asDoubleBuffer().put((double[]) vetor); break;
+        }
+        corpo.rewind();
+        return corpo;
+    }
+
+    static Object decodificar(byte[] corpo) throws IOException
+    {
+        if (corpo.length < 1)
+            throw new IOException("Vetor primitivo sem tipo");
+
+        byte tipo = corpo[0];
+        int largura;
+        try
+        {
+            largura = bytesPorElemento(tipo);
+        }
+        catch (IllegalArgumentException erro)
+        {
+            throw new IOException(erro.getMessage());
+        }
+
+        if ((corpo.length - 1) % largura != 0)
+            throw new IOException("Vetor primitivo com tamanho invalido: " + corpo.length);
+
+        ByteBuffer leitura = ByteBuffer.wrap(corpo, 1, corpo.length - 1).slice();
+        int quantidade = (corpo.length - 1) / largura;
+        switch (tipo)
+        {
+            case SHORT:  { short[]  v = new short[quantidade];  leitura.asShortBuffer().get(v);  return v; }
+            case INT:    { int[]    v = new int[quantidade];    leitura.asIntBuffer().get(v);    return v; }
+            case LONG:   { long[]   v = new long[quantidade];   leitura.asLongBuffer().get(v);   return v; }
+            case FLOAT:  { float[]  v = new float[quantidade];  leitura.asFloatBuffer().get(v);  return v; }
+            default:     { double[] v = new double[quantidade]; leitura.asDoubleBuffer().get(v); return v; }
+        }
+    }
+}